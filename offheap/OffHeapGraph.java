@@ -0,0 +1,265 @@
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * OffHeapGraph stores the adjacency of a graph outside the Java heap, in compressed sparse row form:
+ * a segment of n+1 long offsets and a segment of int neighbors. Offsets are longs, so a graph may have
+ * more than 2^31-1 neighbor entries, and the garbage collector never scans or moves the adjacency.
+ * <p>
+ * The memory belongs to the {@link Arena} given on creation and is freed when that arena is closed;
+ * the graph must not be used afterwards. The parallel algorithms read the graph from pool threads, so
+ * they need a graph whose arena is shared, such as one from {@link Arena#ofShared()}.
+ * <p>
+ * The Foreign Function and Memory API is a preview in JDK 21, so this class is kept apart from the rest
+ * of the tree and compiled against it with {@code --enable-preview}, e.g.
+ * {@code javac --release 21 --enable-preview -cp out -d out offheap/OffHeapGraph.java}. Only a JVM started
+ * with {@code --enable-preview} loads it; everything else runs without the flag.
+ */
+public class OffHeapGraph implements AdjacencyStore {
+    private final int vertices;
+    private final MemorySegment offsets;
+    private final MemorySegment neighbors;
+
+    /**
+     * Constructs a new OffHeapGraph object over already filled segments.
+     *
+     * @param vertices  The number of vertices.
+     * @param offsets   The n+1 offsets of the neighbors of each vertex.
+     * @param neighbors The neighbors of all vertices, one after the other.
+     */
+    private OffHeapGraph(int vertices, MemorySegment offsets, MemorySegment neighbors) {
+        this.vertices = vertices;
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * Copies the adjacency of a graph off the heap. Removed vertices become isolated vertices.
+     *
+     * @param graph The graph to copy.
+     * @param arena The arena that owns the memory of the copy.
+     * @return The off-heap copy of the graph.
+     */
+    public static OffHeapGraph copyOf(AdjacencyStore graph, Arena arena) {
+        int n = graph.getVertices();
+        MemorySegment offsets = allocate(arena, ValueLayout.JAVA_LONG, n + 1L);
+        long total = 0;
+        for (int v = 0; v < n; v++) {
+            offsets.setAtIndex(ValueLayout.JAVA_LONG, v, total);
+            total += graph.getDegree(v);
+        }
+        offsets.setAtIndex(ValueLayout.JAVA_LONG, n, total);
+
+        MemorySegment neighbors = allocate(arena, ValueLayout.JAVA_INT, total);
+        long index = 0;
+        for (int v = 0; v < n; v++) {
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                neighbors.setAtIndex(ValueLayout.JAVA_INT, index++, graph.getNeighbor(v, i));
+            }
+        }
+        return new OffHeapGraph(n, offsets, neighbors);
+    }
+
+    /**
+     * Builds the graph of a builder off the heap, with every duplicate edge and self-loop removed. The
+     * same rules as for {@link GraphBuilder#build()} apply: every thread adding edges must have finished.
+     * <p>
+     * The edges are streamed from the buffers of the builder into rows off the heap with a counting
+     * sort, and each row is then sorted and deduplicated on its own, in parallel. Only one row at a time
+     * per thread is on the heap, never the whole edge list.
+     *
+     * @param builder The builder holding the edges.
+     * @param arena   The arena that owns the memory of the graph.
+     * @return The off-heap graph, with each edge once and neighbors in ascending order.
+     * @throws IllegalStateException If a vertex has more than 2^31-9 edges before deduplication.
+     */
+    public static OffHeapGraph from(GraphBuilder builder, Arena arena) {
+        int n = builder.getVertices();
+        long added = builder.getEdgesAdded();
+        // Shared, as the rows are sorted on pool threads
+        try (Arena scratch = Arena.ofShared()) {
+            // First pass: count both ends of every edge, repeated ones included, into rawOffsets[v + 1]
+            MemorySegment rawOffsets = allocate(scratch, ValueLayout.JAVA_LONG, n + 1L);
+            builder.forEachEdge((from, to) -> {
+                increment(rawOffsets, from + 1L);
+                increment(rawOffsets, to + 1L);
+            });
+            for (int v = 0; v < n; v++) {
+                long start = rawOffsets.getAtIndex(ValueLayout.JAVA_LONG, v);
+                rawOffsets.setAtIndex(ValueLayout.JAVA_LONG, v + 1L, start + rawOffsets.getAtIndex(ValueLayout.JAVA_LONG, v + 1L));
+            }
+
+            // Second pass: place every edge in the rows of both its ends
+            MemorySegment raw = allocate(scratch, ValueLayout.JAVA_INT, 2 * added);
+            MemorySegment cursors = allocate(scratch, ValueLayout.JAVA_LONG, n);
+            MemorySegment.copy(rawOffsets, 0, cursors, 0, cursors.byteSize());
+            builder.forEachEdge((from, to) -> {
+                raw.setAtIndex(ValueLayout.JAVA_INT, increment(cursors, from), to);
+                raw.setAtIndex(ValueLayout.JAVA_INT, increment(cursors, to), from);
+            });
+
+            // Sort and deduplicate every row in place, keeping its new length
+            MemorySegment degrees = allocate(scratch, ValueLayout.JAVA_INT, n);
+            IntStream.range(0, n).parallel().forEach(v -> degrees.setAtIndex(ValueLayout.JAVA_INT, v,
+                    sortUnique(raw, rawOffsets.getAtIndex(ValueLayout.JAVA_LONG, v), rawOffsets.getAtIndex(ValueLayout.JAVA_LONG, v + 1L))));
+
+            // Copy the rows into segments of the exact size, owned by the arena
+            MemorySegment offsets = allocate(arena, ValueLayout.JAVA_LONG, n + 1L);
+            long total = 0;
+            for (int v = 0; v < n; v++) {
+                offsets.setAtIndex(ValueLayout.JAVA_LONG, v, total);
+                total += degrees.getAtIndex(ValueLayout.JAVA_INT, v);
+            }
+            offsets.setAtIndex(ValueLayout.JAVA_LONG, n, total);
+            MemorySegment neighbors = allocate(arena, ValueLayout.JAVA_INT, total);
+            long intBytes = ValueLayout.JAVA_INT.byteSize();
+            for (int v = 0; v < n; v++) {
+                MemorySegment.copy(raw, intBytes * rawOffsets.getAtIndex(ValueLayout.JAVA_LONG, v),
+                        neighbors, intBytes * offsets.getAtIndex(ValueLayout.JAVA_LONG, v),
+                        intBytes * degrees.getAtIndex(ValueLayout.JAVA_INT, v));
+            }
+            builder.setDuplicateEdges(added - total / 2);
+            return new OffHeapGraph(n, offsets, neighbors);
+        }
+    }
+
+    /**
+     * Sorts a row of neighbors and moves each distinct neighbor once to its front. The row is sorted in
+     * an array borrowed from the thread's arena.
+     *
+     * @param neighbors The segment holding the row.
+     * @param start     The index of the first neighbor of the row.
+     * @param end       The index after the last neighbor of the row.
+     * @return The number of distinct neighbors.
+     * @throws IllegalStateException If the row is too long for an array.
+     */
+    private static int sortUnique(MemorySegment neighbors, long start, long end) {
+        if (end - start > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many edges at one vertex to build: " + (end - start));
+        }
+        int length = (int) (end - start);
+        ScratchArena arena = ScratchArena.current();
+        int mark = arena.mark();
+        try {
+            int[] row = arena.ints(length);
+            MemorySegment.copy(neighbors, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT.byteSize() * start, row, 0, length);
+            Arrays.sort(row, 0, length);
+            int unique = 0;
+            for (int i = 0; i < length; i++) {
+                if (unique == 0 || row[i] != row[unique - 1]) {
+                    row[unique++] = row[i];
+                }
+            }
+            MemorySegment.copy(row, 0, neighbors, ValueLayout.JAVA_INT, ValueLayout.JAVA_INT.byteSize() * start, unique);
+            return unique;
+        } finally {
+            arena.release(mark);
+        }
+    }
+
+    /**
+     * Builds a graph from an off-heap edge list, in two sequential passes over the edges.
+     *
+     * @param vertices  The number of vertices.
+     * @param edges     The edges as pairs of int vertices, 2 * edgeCount ints in total.
+     * @param edgeCount The number of edges.
+     * @param arena     The arena that owns the memory of the graph.
+     * @return The off-heap graph.
+     */
+    public static OffHeapGraph fromEdges(int vertices, MemorySegment edges, long edgeCount, Arena arena) {
+        MemorySegment offsets = allocate(arena, ValueLayout.JAVA_LONG, vertices + 1L);
+
+        // First pass: count the degrees into offsets[v + 1]
+        for (long e = 0; e < edgeCount; e++) {
+            int from = edges.getAtIndex(ValueLayout.JAVA_INT, 2 * e);
+            int to = edges.getAtIndex(ValueLayout.JAVA_INT, 2 * e + 1);
+            increment(offsets, from + 1L);
+            increment(offsets, to + 1L);
+        }
+        for (int v = 0; v < vertices; v++) {
+            long start = offsets.getAtIndex(ValueLayout.JAVA_LONG, v);
+            offsets.setAtIndex(ValueLayout.JAVA_LONG, v + 1L, start + offsets.getAtIndex(ValueLayout.JAVA_LONG, v + 1L));
+        }
+
+        // Second pass: place each edge in the rows of both its ends, using a temporary cursor per vertex
+        MemorySegment neighbors = allocate(arena, ValueLayout.JAVA_INT, 2 * edgeCount);
+        try (Arena scratch = Arena.ofConfined()) {
+            MemorySegment cursors = allocate(scratch, ValueLayout.JAVA_LONG, vertices);
+            MemorySegment.copy(offsets, 0, cursors, 0, cursors.byteSize());
+            for (long e = 0; e < edgeCount; e++) {
+                int from = edges.getAtIndex(ValueLayout.JAVA_INT, 2 * e);
+                int to = edges.getAtIndex(ValueLayout.JAVA_INT, 2 * e + 1);
+                neighbors.setAtIndex(ValueLayout.JAVA_INT, increment(cursors, from), to);
+                neighbors.setAtIndex(ValueLayout.JAVA_INT, increment(cursors, to), from);
+            }
+        }
+        return new OffHeapGraph(vertices, offsets, neighbors);
+    }
+
+    @Override
+    public int getVertices() {
+        return vertices;
+    }
+
+    @Override
+    public int getDegree(int v) {
+        return (int) (getOffset(v + 1) - getOffset(v));
+    }
+
+    @Override
+    public int getNeighbor(int v, int index) {
+        return neighbors.getAtIndex(ValueLayout.JAVA_INT, getOffset(v) + index);
+    }
+
+    @Override
+    public boolean isRemoved(int v) {
+        return false;
+    }
+
+    /**
+     * Retrieves the offset of the first neighbor of a vertex.
+     *
+     * @param v The vertex, or the number of vertices for the end of the last row.
+     * @return The offset in the neighbors segment.
+     */
+    public long getOffset(int v) {
+        return offsets.getAtIndex(ValueLayout.JAVA_LONG, v);
+    }
+
+    /**
+     * Retrieves the total number of neighbor entries, twice the number of edges.
+     *
+     * @return The number of neighbor entries.
+     */
+    public long getNeighborCount() {
+        return getOffset(vertices);
+    }
+
+    /**
+     * Allocates a zeroed segment for an array of values.
+     *
+     * @param arena  The arena that owns the memory.
+     * @param layout The layout of one value.
+     * @param count  The number of values.
+     * @return The allocated segment.
+     */
+    private static MemorySegment allocate(Arena arena, ValueLayout layout, long count) {
+        return arena.allocate(layout.byteSize() * count, layout.byteAlignment());
+    }
+
+    /**
+     * Increments a long in a segment.
+     *
+     * @param segment The segment of longs.
+     * @param index   The index of the long.
+     * @return The value before the increment.
+     */
+    private static long increment(MemorySegment segment, long index) {
+        long value = segment.getAtIndex(ValueLayout.JAVA_LONG, index);
+        segment.setAtIndex(ValueLayout.JAVA_LONG, index, value + 1);
+        return value;
+    }
+}
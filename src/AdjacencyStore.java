@@ -0,0 +1,112 @@
+/**
+ * AdjacencyStore is the read-only view of a graph's adjacency that the coloring engine and the traversal
+ * algorithms use, so the same code can run over a heap {@link Graph}, a {@link GraphSnapshot}, or an
+ * {@code OffHeapGraph}. The off-heap graph lives in the separate {@code offheap} source directory because it
+ * needs the preview Foreign Function and Memory API of JDK 21; the rest of the tree builds without it.
+ */
+public interface AdjacencyStore {
+
+    /**
+     * Retrieves the number of vertices in the graph.
+     *
+     * @return The number of vertices.
+     */
+    int getVertices();
+
+    /**
+     * Retrieves the degree of a vertex.
+     *
+     * @param v The vertex.
+     * @return The number of neighbors of the vertex, or 0 if it was removed.
+     */
+    int getDegree(int v);
+
+    /**
+     * Retrieves a neighbor of a vertex.
+     *
+     * @param v     The vertex.
+     * @param index The index of the neighbor, between 0 and the degree of the vertex.
+     * @return The neighbor.
+     */
+    int getNeighbor(int v, int index);
+
+    /**
+     * Checks if a vertex was removed from the graph.
+     *
+     * @param v The vertex.
+     * @return True if the vertex was removed, otherwise false.
+     */
+    boolean isRemoved(int v);
+
+    /**
+     * Calculates the maximum degree of the graph.
+     *
+     * @return The maximum degree.
+     */
+    default int getMaxDegree() {
+        int maxDegree = 0;
+        for (int v = 0; v < getVertices(); v++) {
+            maxDegree = Math.max(maxDegree, getDegree(v));
+        }
+        return maxDegree;
+    }
+
+    /**
+     * Counts the edges of the graph, ignoring removed vertices and the edges to them.
+     *
+     * @return The number of edges between vertices that were not removed.
+     */
+    default long getEdgeCount() {
+        long degreeSum = 0;
+        for (int v = 0; v < getVertices(); v++) {
+            if (isRemoved(v)) continue;
+            for (int i = 0; i < getDegree(v); i++) {
+                if (!isRemoved(getNeighbor(v, i))) {
+                    degreeSum++;
+                }
+            }
+        }
+        return degreeSum / 2;
+    }
+
+    /**
+     * Checks if there is an edge between two vertices, by scanning the neighbors of the first.
+     *
+     * @param y The first vertex.
+     * @param z The second vertex.
+     * @return True if there is an edge between y and z, otherwise false.
+     */
+    default boolean hasEdge(int y, int z) {
+        for (int i = 0; i < getDegree(y); i++) {
+            if (getNeighbor(y, i) == z) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Determines whether the graph is a clique.
+     *
+     * @return True if every vertex is adjacent to all the others, otherwise false.
+     */
+    default boolean isClique() {
+        int n = getVertices();
+        for (int v = 0; v < n; v++) {
+            if (isRemoved(v) || getDegree(v) != n - 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether the graph is connected, ignoring removed vertices.
+     *
+     * @return True if the graph is connected, otherwise false.
+     * @see ParallelBfs
+     */
+    default boolean isConnected() {
+        return new ParallelBfs(this).isConnected();
+    }
+}
@@ -0,0 +1,278 @@
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * AnytimeColoring colors a graph within a time budget. It first takes the cheapest proper coloring,
+ * greedy in vertex order with at most Δ(G)+1 colors, and then runs better colorings while time is left:
+ * greedy in smallest-last order, Brooks' algorithm for Δ(G) colors, greedy in DSatur order, and finally
+ * {@link KempeReduction} of the best coloring with the rest of the time.
+ * A coloring replaces the best one so far only if it is proper and uses fewer colors, and the steps
+ * stop as soon as the best coloring meets a lower bound, the size of a clique found by {@link CliqueFinder}.
+ * <p>
+ * After the first coloring, every step runs on a worker thread and the caller waits for it only until
+ * the deadline. When the deadline passes or the caller is interrupted, the running step is abandoned:
+ * its worker is interrupted, its result is dropped, and the best coloring so far is returned at once.
+ * The orderings and Brooks' algorithm stop at the interrupt within a thousand vertices; a greedy pass,
+ * clique search or connectivity check already under way finishes in the background. An interrupt of
+ * the caller stays set on its thread, so the caller can see it.
+ * <p>
+ * The steps read a {@link GraphSnapshot} taken on construction, so an abandoned step never sees the
+ * graph change under it.
+ */
+public class AnytimeColoring {
+    private static final long CLIQUE_NODE_BUDGET = 10000;
+
+    private final GraphSnapshot graph;
+    private int[] best;
+    private int bestColors;
+    private String bestStep;
+    private boolean complete;
+    private int lowerBound;
+
+    /**
+     * Constructs a new AnytimeColoring object for the given graph. Later changes to the graph do not
+     * affect the coloring.
+     *
+     * @param graph The graph to color.
+     */
+    public AnytimeColoring(AdjacencyStore graph) {
+        this.graph = GraphSnapshot.copyOf(graph);
+    }
+
+    /**
+     * Colors the graph, improving the coloring until the time budget runs out.
+     *
+     * @param timeout The time budget.
+     * @param unit    The unit of the time budget.
+     * @return An array containing the colors of the vertices, the best coloring found in time.
+     */
+    public int[] color(long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int maxDegree = graph.getMaxDegree();
+        complete = false;
+
+        // The first coloring is always kept, however late it is, so there is always an answer
+        best = GreedyColoring.color(graph, identityOrder(), maxDegree);
+        bestColors = countColors(best);
+        bestStep = "greedy";
+        lowerBound = graph.getEdgeCount() == 0 ? 1 : 2;
+
+        // A daemon worker, so a step abandoned at the deadline never keeps the JVM alive
+        ExecutorService worker = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "anytime-step");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            int[][] smallestLast = {null};
+            consider("smallest-last", deadline, worker, () -> {
+                SmallestLastOrdering ordering = new SmallestLastOrdering();
+                ordering.setInterruptible(true);
+                smallestLast[0] = ordering.findOrdering(graph);
+                return greedyUnlessInterrupted(smallestLast[0], maxDegree);
+            });
+            if (smallestLast[0] != null && bestColors > lowerBound) {
+                // The smallest-last ordering bounds the cliques, so the search reuses it
+                int[] clique = runStep("clique", deadline, worker, () -> new CliqueFinder(graph).find(smallestLast[0], CLIQUE_NODE_BUDGET));
+                lowerBound = Math.max(lowerBound, clique.length);
+            }
+            if (bestColors > maxDegree) {
+                consider("brooks", deadline, worker, () -> {
+                    if (!graph.isConnected()) {
+                        return null;
+                    }
+                    GraphColoring coloring = new GraphColoring(graph);
+                    coloring.setDeadline(deadline);
+                    coloring.setFlightRecorderEvents(false);
+                    return coloring.brooksAlgorithm(null);
+                });
+            }
+            consider("dsatur", deadline, worker, () -> {
+                DSaturOrdering ordering = new DSaturOrdering();
+                ordering.setInterruptible(true);
+                return greedyUnlessInterrupted(ordering.findOrdering(graph), maxDegree);
+            });
+            int[] start = best;
+            consider("kempe", deadline, worker, () -> {
+                KempeReduction reduction = new KempeReduction(graph);
+                reduction.setLowerBound(lowerBound);
+                return reduction.reduce(start, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            });
+            complete = true;
+        } catch (CancellationException e) {
+            // Out of time: the best coloring so far is the answer
+        } finally {
+            worker.shutdownNow();
+        }
+        return best;
+    }
+
+    /**
+     * Returns the number of colors of the coloring returned by the last call to {@link #color(long, TimeUnit)}.
+     *
+     * @return The number of colors.
+     */
+    public int getColorsUsed() {
+        return bestColors;
+    }
+
+    /**
+     * Returns the step that found the coloring returned by the last call to {@link #color(long, TimeUnit)}.
+     *
+     * @return The name of the step: greedy, smallest-last, brooks, dsatur or kempe.
+     */
+    public String getBestStep() {
+        return bestStep;
+    }
+
+    /**
+     * Returns the lower bound on the number of colors found by the last call to {@link #color(long, TimeUnit)}.
+     * If it equals the number of colors used, the coloring is optimal.
+     *
+     * @return The lower bound.
+     */
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Checks if the last call to {@link #color(long, TimeUnit)} ran every step before the deadline.
+     *
+     * @return True if no step was cut short, otherwise false.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Runs one step if there is time left, and keeps its coloring if it is better than the best so far.
+     * The step is skipped if the best coloring so far already meets the lower bound.
+     *
+     * @param step     The name of the step.
+     * @param deadline The deadline as a {@link System#nanoTime()} value.
+     * @param worker   The thread the step runs on.
+     * @param coloring The step, which returns null if it does not apply to the graph.
+     * @throws CancellationException If the deadline passed or the thread was interrupted.
+     */
+    private void consider(String step, long deadline, ExecutorService worker, Callable<int[]> coloring) {
+        if (bestColors <= lowerBound) {
+            return;
+        }
+        int[] colors = runStep(step, deadline, worker, coloring);
+        if (colors == null) {
+            return;
+        }
+        int count = countColors(colors);
+        if (count < bestColors && isProper(colors)) {
+            best = colors;
+            bestColors = count;
+            bestStep = step;
+        }
+    }
+
+    /**
+     * Runs a step on the worker and waits for it until the deadline. A step that is still running then,
+     * or when the caller is interrupted, is interrupted and abandoned.
+     *
+     * @param step     The name of the step.
+     * @param deadline The deadline as a {@link System#nanoTime()} value.
+     * @param worker   The thread the step runs on.
+     * @param task     The step.
+     * @param <T>      The type of the result of the step.
+     * @return The result of the step.
+     * @throws CancellationException If the deadline passed or the thread was interrupted.
+     */
+    private static <T> T runStep(String step, long deadline, ExecutorService worker, Callable<T> task) {
+        if (Thread.currentThread().isInterrupted() || System.nanoTime() - deadline > 0) {
+            throw new CancellationException(step + " was not started");
+        }
+        Future<T> future = worker.submit(task);
+        try {
+            return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new CancellationException(step + " missed the deadline");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException(step + " was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException(step + " failed", e.getCause());
+        }
+    }
+
+    /**
+     * Colors the graph greedily in an ordering, unless the step was abandoned while finding it.
+     *
+     * @param ordering  The order in which the vertices should be colored.
+     * @param maxDegree The maximum degree in the graph.
+     * @return An array containing the colors of the vertices.
+     * @throws CancellationException If the worker was interrupted.
+     */
+    private int[] greedyUnlessInterrupted(int[] ordering, int maxDegree) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("The step was abandoned before its greedy pass");
+        }
+        return GreedyColoring.color(graph, ordering, maxDegree);
+    }
+
+    /**
+     * Checks that every vertex is colored and that no two adjacent vertices share a color.
+     *
+     * @param colors An array representing the colors of the vertices.
+     * @return True if the coloring is proper, otherwise false.
+     */
+    private boolean isProper(int[] colors) {
+        for (int v = 0; v < graph.getVertices(); v++) {
+            if (graph.isRemoved(v)) continue;
+            if (colors[v] == -1) {
+                return false;
+            }
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                if (colors[graph.getNeighbor(v, i)] == colors[v]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the colors of a coloring.
+     *
+     * @param colors An array representing the colors of the vertices.
+     * @return The largest color plus one.
+     */
+    private static int countColors(int[] colors) {
+        int maxColor = -1;
+        for (int color : colors) {
+            maxColor = Math.max(maxColor, color);
+        }
+        return maxColor + 1;
+    }
+
+    /**
+     * Creates the identity order 0, 1, 2, ..., n-1.
+     *
+     * @return The order.
+     */
+    private int[] identityOrder() {
+        int[] ordering = new int[graph.getVertices()];
+        for (int i = 0; i < ordering.length; i++) {
+            ordering[i] = i;
+        }
+        return ordering;
+    }
+}
@@ -0,0 +1,139 @@
+import java.util.Arrays;
+
+/**
+ * BipartiteColoring colors the graphs that need no search in linear time. A graph is bipartite exactly
+ * when giving every vertex the parity of its breadth-first level is a proper coloring; this covers trees,
+ * paths, even cycles and every other graph without an odd cycle, which take 2 colors, or 1 without edges.
+ * In an odd cycle the levels clash on a single edge at the far end from the start, and moving one of its
+ * ends to a third color gives a proper 3-coloring.
+ */
+public class BipartiteColoring {
+
+    /**
+     * Colors a graph with 2 colors by the parity of the breadth-first levels of its components.
+     *
+     * @param graph The graph to color.
+     * @return An array containing the colors of the vertices, -1 for removed vertices, or null if the
+     * graph has an odd cycle.
+     */
+    public static int[] color(AdjacencyStore graph) {
+        int[] colors = colorByLevel(graph);
+        return findConflict(graph, colors) == -1 ? colors : null;
+    }
+
+    /**
+     * Checks if a graph has no odd cycle, stopping at the first edge whose ends get the same level
+     * parity. Nothing is allocated: the queue, the parities and the visited set come from the thread's arena.
+     *
+     * @param graph The graph to check.
+     * @return True if the graph is bipartite, otherwise false.
+     */
+    public static boolean isBipartite(AdjacencyStore graph) {
+        int n = graph.getVertices();
+        ScratchArena arena = ScratchArena.current();
+        int mark = arena.mark();
+        try {
+            int[] queue = arena.ints(n);
+            int[] parity = arena.ints(n);
+            ScratchArena.Stamps visited = arena.stamps(n);
+            for (int s = 0; s < n; s++) {
+                if (visited.contains(s) || graph.isRemoved(s)) continue;
+                visited.add(s);
+                parity[s] = 0;
+                int head = 0;
+                int tail = 0;
+                queue[tail++] = s;
+                while (head < tail) {
+                    int v = queue[head++];
+                    for (int i = 0; i < graph.getDegree(v); i++) {
+                        int u = graph.getNeighbor(v, i);
+                        if (graph.isRemoved(u)) continue;
+                        if (visited.add(u)) {
+                            parity[u] = 1 - parity[v];
+                            queue[tail++] = u;
+                        } else if (parity[u] == parity[v]) {
+                            return false;
+                        }
+                    }
+                }
+            }
+            return true;
+        } finally {
+            arena.release(mark);
+        }
+    }
+
+    /**
+     * Colors a cycle, with 2 colors if it is even and 3 if it is odd.
+     *
+     * @param graph A connected graph in which every vertex has degree 2.
+     * @return An array containing the colors of the vertices, -1 for removed vertices.
+     */
+    public static int[] colorCycle(AdjacencyStore graph) {
+        int[] colors = colorByLevel(graph);
+        int conflict = findConflict(graph, colors);
+        if (conflict != -1) {
+            // Both neighbors of the vertex keep their colors, so the third color is free for it
+            colors[conflict] = 2;
+        }
+        return colors;
+    }
+
+    /**
+     * Colors each vertex with the parity of its breadth-first level, starting a search from the smallest
+     * vertex of each component.
+     *
+     * @param graph The graph to color.
+     * @return An array containing the colors of the vertices, -1 for removed vertices.
+     */
+    private static int[] colorByLevel(AdjacencyStore graph) {
+        int n = graph.getVertices();
+        int[] colors = new int[n];
+        Arrays.fill(colors, -1);
+        ScratchArena arena = ScratchArena.current();
+        int mark = arena.mark();
+        try {
+            int[] queue = arena.ints(n);
+            for (int s = 0; s < n; s++) {
+                if (colors[s] != -1 || graph.isRemoved(s)) continue;
+                colors[s] = 0;
+                int head = 0;
+                int tail = 0;
+                queue[tail++] = s;
+                while (head < tail) {
+                    int v = queue[head++];
+                    for (int i = 0; i < graph.getDegree(v); i++) {
+                        int u = graph.getNeighbor(v, i);
+                        if (colors[u] == -1 && !graph.isRemoved(u)) {
+                            colors[u] = 1 - colors[v];
+                            queue[tail++] = u;
+                        }
+                    }
+                }
+            }
+        } finally {
+            arena.release(mark);
+        }
+        return colors;
+    }
+
+    /**
+     * Finds a vertex with a neighbor of the same color.
+     *
+     * @param graph  The graph.
+     * @param colors An array representing the colors of the vertices.
+     * @return The larger end of the first such edge, or -1 if the coloring is proper.
+     */
+    private static int findConflict(AdjacencyStore graph, int[] colors) {
+        for (int v = 0; v < graph.getVertices(); v++) {
+            if (colors[v] == -1) continue;
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                int u = graph.getNeighbor(v, i);
+                if (u < v && colors[u] == colors[v]) {
+                    return v;
+                }
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,340 @@
+import java.util.Arrays;
+
+/**
+ * CliqueFinder finds a large clique of a graph, whose size is a lower bound on the number of colors.
+ * <p>
+ * The vertices are taken in {@link SmallestLastOrdering}: every clique lies within one vertex and its
+ * neighbors that come earlier in that order, at most the degeneracy of them. For each such
+ * neighborhood, from the densest part of the graph outward, a clique is grown greedily and then,
+ * while the node budget lasts, a branch and bound search over bitsets looks for a larger one, pruning
+ * with a greedy coloring of the candidates. Neighborhoods too small to beat the best clique are skipped.
+ * If the search never runs out of budget, the clique found is a maximum clique.
+ */
+public class CliqueFinder {
+    private static final int MAX_NEIGHBORHOOD = 4096;
+
+    private final AdjacencyStore graph;
+    private long nodes;
+    private long nodeBudget;
+    private boolean exact;
+
+    /**
+     * Constructs a new CliqueFinder object for the given graph.
+     *
+     * @param graph The graph to search.
+     */
+    public CliqueFinder(AdjacencyStore graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Finds a clique.
+     *
+     * @param nodeBudget The largest number of branch and bound nodes to visit, or 0 for greedy cliques only.
+     * @return The vertices of the clique.
+     */
+    public int[] find(long nodeBudget) {
+        return find(new SmallestLastOrdering().findOrdering(graph), nodeBudget);
+    }
+
+    /**
+     * Finds a clique, reusing a smallest-last ordering of the graph that is already known.
+     *
+     * @param ordering   The vertices in {@link SmallestLastOrdering}, without the removed vertices.
+     * @param nodeBudget The largest number of branch and bound nodes to visit, or 0 for greedy cliques only.
+     * @return The vertices of the clique.
+     */
+    public int[] find(int[] ordering, long nodeBudget) {
+        this.nodeBudget = nodeBudget;
+        this.nodes = 0;
+        this.exact = true;
+
+        int n = graph.getVertices();
+        int[] position = new int[n];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < ordering.length; i++) {
+            position[ordering[i]] = i;
+        }
+        int[] best = ordering.length > 0 ? new int[]{ordering[0]} : new int[0];
+        int[] localIndex = new int[n];
+        Arrays.fill(localIndex, -1);
+        // Reused between neighborhoods, and grown when a larger one comes
+        int[] candidates = new int[0];
+        long[][] adjacency = new long[0][];
+
+        // The last vertices of the ordering sit in the densest core
+        for (int i = ordering.length - 1; i >= 0; i--) {
+            int v = ordering[i];
+            if (graph.getDegree(v) < best.length) continue;
+            if (candidates.length < graph.getDegree(v)) {
+                candidates = new int[graph.getDegree(v)];
+            }
+            int size = earlierNeighbors(v, position, candidates);
+            if (size + 1 <= best.length) continue;
+            if (size > MAX_NEIGHBORHOOD) {
+                exact = false;
+                continue;
+            }
+
+            // Adjacency among the candidates, as bitsets over their local indices
+            int words = (size + 63) >>> 6;
+            if (adjacency.length < size || adjacency[0].length < words) {
+                adjacency = new long[Math.max(size, adjacency.length)][words];
+            }
+            for (int a = 0; a < size; a++) {
+                localIndex[candidates[a]] = a;
+                Arrays.fill(adjacency[a], 0, words, 0);
+            }
+            for (int a = 0; a < size; a++) {
+                int u = candidates[a];
+                for (int j = 0; j < graph.getDegree(u); j++) {
+                    int b = localIndex[graph.getNeighbor(u, j)];
+                    if (b != -1) adjacency[a][b >>> 6] |= 1L << b;
+                }
+            }
+            for (int a = 0; a < size; a++) {
+                localIndex[candidates[a]] = -1;
+            }
+
+            int[] clique = greedyClique(adjacency, size);
+            if (nodeBudget > 0 && clique.length < size) {
+                int[] larger = searchClique(adjacency, size, Math.max(clique.length, best.length - 1));
+                if (larger != null) clique = larger;
+            } else if (clique.length < size) {
+                exact = false;
+            }
+            if (clique.length + 1 > best.length) {
+                best = new int[clique.length + 1];
+                best[0] = v;
+                for (int a = 0; a < clique.length; a++) {
+                    best[a + 1] = candidates[clique[a]];
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks if the last call to {@link #find(long)} proved its clique to be a maximum clique.
+     *
+     * @return True if the clique is maximum, false if the budget ran out or was 0.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Returns the number of branch and bound nodes visited by the last call to {@link #find(long)}.
+     *
+     * @return The number of nodes.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Finds the neighbors of a vertex that come earlier in the ordering.
+     *
+     * @param v        The vertex.
+     * @param position The position of each vertex in the ordering, -1 for removed vertices.
+     * @param row      The array to fill with the neighbors, at least as long as the degree of the vertex.
+     * @return The number of neighbors.
+     */
+    private int earlierNeighbors(int v, int[] position, int[] row) {
+        int count = 0;
+        for (int i = 0; i < graph.getDegree(v); i++) {
+            int u = graph.getNeighbor(v, i);
+            if (position[u] != -1 && position[u] < position[v]) {
+                row[count++] = u;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Grows a clique by repeatedly adding the candidate with the most neighbors among the candidates left.
+     *
+     * @param adjacency The adjacency bitsets of the candidates.
+     * @param size      The number of candidates.
+     * @return The local indices of the clique.
+     */
+    private static int[] greedyClique(long[][] adjacency, int size) {
+        long[] candidates = allOf(size);
+        int[] clique = new int[size];
+        int count = 0;
+        while (true) {
+            int pick = -1;
+            int pickDegree = -1;
+            for (int w = 0; w < candidates.length; w++) {
+                for (long word = candidates[w]; word != 0; word &= word - 1) {
+                    int u = (w << 6) + Long.numberOfTrailingZeros(word);
+                    int degree = intersectionSize(candidates, adjacency[u]);
+                    if (degree > pickDegree) {
+                        pick = u;
+                        pickDegree = degree;
+                    }
+                }
+            }
+            if (pick == -1) break;
+            clique[count++] = pick;
+            and(candidates, adjacency[pick]);
+        }
+        return Arrays.copyOf(clique, count);
+    }
+
+    /**
+     * Searches for a clique larger than a given size with branch and bound.
+     *
+     * @param adjacency The adjacency bitsets of the candidates.
+     * @param size      The number of candidates.
+     * @param atLeast   The size the clique must exceed.
+     * @return The local indices of the largest clique found, or null if none exceeds the size.
+     */
+    private int[] searchClique(long[][] adjacency, int size, int atLeast) {
+        int[][] found = {null};
+        int[] current = new int[size];
+        expand(adjacency, allOf(size), current, 0, new int[]{atLeast}, found);
+        return found[0];
+    }
+
+    /**
+     * Expands a clique with each candidate in turn, in the reverse order of a greedy coloring of the
+     * candidates; the number of colors bounds how much the clique can still grow.
+     *
+     * @param adjacency  The adjacency bitsets of the candidates.
+     * @param candidates The vertices adjacent to the whole current clique.
+     * @param current    The current clique.
+     * @param depth      The size of the current clique.
+     * @param bestSize   The size of the largest clique known, updated in place.
+     * @param found      The largest clique found by this search, updated in place.
+     */
+    private void expand(long[][] adjacency, long[] candidates, int[] current, int depth, int[] bestSize, int[][] found) {
+        if (++nodes > nodeBudget) {
+            exact = false;
+            return;
+        }
+        int count = 0;
+        for (long word : candidates) {
+            count += Long.bitCount(word);
+        }
+        int[] order = new int[count];
+        int[] bound = new int[count];
+        colorSort(adjacency, candidates, order, bound);
+
+        long[] remaining = candidates.clone();
+        for (int i = count - 1; i >= 0; i--) {
+            if (depth + bound[i] <= bestSize[0] || nodes > nodeBudget) {
+                return;
+            }
+            int u = order[i];
+            current[depth] = u;
+            long[] next = remaining.clone();
+            and(next, adjacency[u]);
+            if (isEmpty(next)) {
+                if (depth + 1 > bestSize[0]) {
+                    bestSize[0] = depth + 1;
+                    found[0] = Arrays.copyOf(current, depth + 1);
+                }
+            } else {
+                expand(adjacency, next, current, depth + 1, bestSize, found);
+            }
+            remaining[u >>> 6] &= ~(1L << u);
+        }
+    }
+
+    /**
+     * Colors the candidates greedily into independent sets and lists them by color.
+     *
+     * @param adjacency  The adjacency bitsets of the candidates.
+     * @param candidates The candidates.
+     * @param order      The candidates by increasing color, filled in.
+     * @param bound      The color of each listed candidate plus one, filled in.
+     */
+    private static void colorSort(long[][] adjacency, long[] candidates, int[] order, int[] bound) {
+        long[] uncolored = candidates.clone();
+        int index = 0;
+        int color = 0;
+        while (!isEmpty(uncolored)) {
+            color++;
+            long[] available = uncolored.clone();
+            while (!isEmpty(available)) {
+                int u = first(available);
+                available[u >>> 6] &= ~(1L << u);
+                for (int w = 0; w < available.length; w++) {
+                    available[w] &= ~adjacency[u][w];
+                }
+                uncolored[u >>> 6] &= ~(1L << u);
+                order[index] = u;
+                bound[index++] = color;
+            }
+        }
+    }
+
+    /**
+     * Creates a bitset with the first bits set.
+     *
+     * @param size The number of bits to set.
+     * @return The bitset.
+     */
+    private static long[] allOf(int size) {
+        long[] bits = new long[(size + 63) >>> 6];
+        for (int i = 0; i < size; i++) {
+            bits[i >>> 6] |= 1L << i;
+        }
+        return bits;
+    }
+
+    /**
+     * Intersects a bitset with another in place.
+     *
+     * @param bits  The bitset to change.
+     * @param other The other bitset.
+     */
+    private static void and(long[] bits, long[] other) {
+        for (int w = 0; w < bits.length; w++) {
+            bits[w] &= other[w];
+        }
+    }
+
+    /**
+     * Counts the bits two bitsets share.
+     *
+     * @param a The first bitset.
+     * @param b The second bitset.
+     * @return The size of the intersection.
+     */
+    private static int intersectionSize(long[] a, long[] b) {
+        int count = 0;
+        for (int w = 0; w < a.length; w++) {
+            count += Long.bitCount(a[w] & b[w]);
+        }
+        return count;
+    }
+
+    /**
+     * Checks if a bitset is empty.
+     *
+     * @param bits The bitset.
+     * @return True if no bit is set, otherwise false.
+     */
+    private static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the first set bit of a non-empty bitset.
+     *
+     * @param bits The bitset.
+     * @return The index of the bit.
+     */
+    private static int first(long[] bits) {
+        int w = 0;
+        while (bits[w] == 0) {
+            w++;
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(bits[w]);
+    }
+}
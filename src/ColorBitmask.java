@@ -0,0 +1,144 @@
+import java.util.Arrays;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * ColorBitmask is the set of colors forbidden to a vertex, kept as 64-bit words. Marking a color sets
+ * one bit, and the least free color is found with {@link Long#numberOfTrailingZeros(long)} on the first
+ * word that is not full, so choosing a color costs O(deg + Δ/64) instead of O(deg + Δ).
+ * <p>
+ * On palettes of 512 colors or more the search for that word uses the Vector API through
+ * {@code VectorColorScan}, which lives in the separate {@code vector} source directory because it needs
+ * the incubating {@code jdk.incubator.vector} module to compile. It is a {@link ServiceLoader} provider
+ * of {@link WordScan}, registered in {@code vector/META-INF/services}, and is used only when it is on
+ * the class path and the module is present at run time; otherwise the scalar search is used and nothing
+ * else in the tree depends on the module. The lookup happens the first time a large palette is searched,
+ * not when this class is loaded, and {@link #setVectorScan(boolean)} turns it off. Smaller palettes are
+ * searched in at most seven words, which the scalar loop does faster than a vector could be set up.
+ * Marking stays scalar: each color sets one bit of a word picked by the color, a scatter that vectors
+ * cannot do without conflicts between colors falling in the same word.
+ * One object can be reset and reused for many vertices.
+ */
+public class ColorBitmask {
+    private static final int VECTOR_THRESHOLD = 8;
+    private static boolean vectorScan = true;
+
+    private long[] words;
+    private int maxColor;
+
+    /**
+     * Constructs a new, empty ColorBitmask object.
+     *
+     * @param maxColor The largest color that may be used.
+     */
+    public ColorBitmask(int maxColor) {
+        this.words = new long[(maxColor >>> 6) + 1];
+        this.maxColor = maxColor;
+    }
+
+    /**
+     * Allows or forbids the vector search for all bitmasks. It is allowed by default; forbidding it before
+     * any coloring starts keeps the search scalar and the vector search from ever being looked up.
+     *
+     * @param enabled Whether the vector search may be used.
+     */
+    public static void setVectorScan(boolean enabled) {
+        vectorScan = enabled;
+    }
+
+    /**
+     * Empties the set for a new vertex, clearing only the words the palette needs.
+     *
+     * @param maxColor The largest color that may be used.
+     */
+    public void reset(int maxColor) {
+        int length = (maxColor >>> 6) + 1;
+        if (length > words.length) {
+            words = new long[Math.max(length, words.length * 2)];
+        } else {
+            Arrays.fill(words, 0, length, 0L);
+        }
+        this.maxColor = maxColor;
+    }
+
+    /**
+     * Marks a color as used by a neighbor. Uncolored neighbors and colors above the palette are ignored.
+     *
+     * @param color The color of the neighbor, or -1 if it is uncolored.
+     */
+    public void forbid(int color) {
+        if (color >= 0 && color <= maxColor) {
+            words[color >>> 6] |= 1L << color;
+        }
+    }
+
+    /**
+     * Finds the least color that is not forbidden.
+     *
+     * @return The least free color, or -1 if every color of the palette is forbidden.
+     */
+    public int firstFree() {
+        int length = (maxColor >>> 6) + 1;
+        WordScan scan = vectorScan && length >= VECTOR_THRESHOLD ? VectorScan.INSTANCE : null;
+        int w = scan != null ? scan.firstNotFull(words, length) : firstNotFull(words, length);
+        if (w == -1) {
+            return -1;
+        }
+        int color = (w << 6) + Long.numberOfTrailingZeros(~words[w]);
+        return color <= maxColor ? color : -1;
+    }
+
+    /**
+     * Finds the first word with a clear bit.
+     *
+     * @param words  The words.
+     * @param length The number of words to search.
+     * @return The index of the word, or -1 if all are full.
+     */
+    static int firstNotFull(long[] words, int length) {
+        for (int w = 0; w < length; w++) {
+            if (words[w] != -1L) {
+                return w;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Loads the vector search if it was compiled and the Vector API is present.
+     *
+     * @return The vector search, or null if the scalar search must be used.
+     */
+    private static WordScan loadVectorScan() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return null;
+        }
+        try {
+            return ServiceLoader.load(WordScan.class).findFirst().orElse(null);
+        } catch (ServiceConfigurationError | LinkageError e) {
+            return null;
+        }
+    }
+
+    /**
+     * VectorScan holds the vector search, which is looked up when this class is first used.
+     */
+    private static final class VectorScan {
+        static final WordScan INSTANCE = loadVectorScan();
+    }
+
+    /**
+     * WordScan searches the words of a bitmask for one that is not full.
+     */
+    interface WordScan {
+
+        /**
+         * Finds the first word with a clear bit.
+         *
+         * @param words  The words.
+         * @param length The number of words to search.
+         * @return The index of the word, or -1 if all are full.
+         */
+        int firstNotFull(long[] words, int length);
+    }
+}
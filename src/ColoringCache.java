@@ -0,0 +1,301 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * ColoringCache keeps the colorings of graphs that were already colored, keyed by the
+ * {@link GraphFingerprint} of the graph, so resubmitted graphs skip the coloring engine.
+ * <p>
+ * Colorings are held in memory up to a total size in bytes, evicting the least recently used first,
+ * and optionally in a directory on disk, which is checked when the memory misses and is never evicted.
+ * A cached coloring is checked to be proper for the graph before it is returned, so a fingerprint
+ * collision costs a recoloring rather than a wrong answer.
+ */
+public class ColoringCache {
+    private final long maxBytes;
+    private final Path directory;
+    private final LinkedHashMap<GraphFingerprint, int[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new in-memory ColoringCache object.
+     *
+     * @param maxBytes The largest total size of the cached colorings in memory.
+     */
+    public ColoringCache(long maxBytes) {
+        this(maxBytes, null);
+    }
+
+    /**
+     * Constructs a new ColoringCache object with an on-disk tier.
+     *
+     * @param maxBytes  The largest total size of the cached colorings in memory.
+     * @param directory The directory of the on-disk tier, or null for none.
+     */
+    public ColoringCache(long maxBytes, Path directory) {
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the cached coloring of a graph, coloring it and caching the result on a miss.
+     *
+     * @param graph    The graph to color.
+     * @param coloring The coloring engine, for example {@code g -> new GraphColoring(g).brooksAlgorithm(null)}.
+     * @return An array containing the colors of the vertices.
+     */
+    public int[] computeIfAbsent(Graph graph, Function<Graph, int[]> coloring) {
+        GraphFingerprint key = GraphFingerprint.of(graph);
+        int[] colors = get(key, graph);
+        if (colors != null) {
+            return colors;
+        }
+        misses.increment();
+        colors = coloring.apply(graph);
+        put(key, colors);
+        return colors.clone();
+    }
+
+    /**
+     * Looks a coloring up in memory, then on disk.
+     *
+     * @param key   The fingerprint of the graph.
+     * @param graph The graph, to check the coloring against.
+     * @return A copy of the coloring, or null if none is cached.
+     */
+    private int[] get(GraphFingerprint key, Graph graph) {
+        int[] colors;
+        synchronized (this) {
+            colors = entries.get(key);
+        }
+        if (colors != null && isProperColoring(graph, colors)) {
+            hits.increment();
+            return colors.clone();
+        }
+        colors = readFromDisk(key);
+        if (colors != null && isProperColoring(graph, colors)) {
+            diskHits.increment();
+            putInMemory(key, colors);
+            return colors.clone();
+        }
+        return null;
+    }
+
+    /**
+     * Caches a coloring in memory and on disk.
+     *
+     * @param key    The fingerprint of the graph.
+     * @param colors The coloring.
+     */
+    private void put(GraphFingerprint key, int[] colors) {
+        putInMemory(key, colors.clone());
+        writeToDisk(key, colors);
+    }
+
+    /**
+     * Caches a coloring in memory, evicting the least recently used colorings until it fits.
+     *
+     * @param key    The fingerprint of the graph.
+     * @param colors The coloring, which the cache now owns.
+     */
+    private synchronized void putInMemory(GraphFingerprint key, int[] colors) {
+        long size = sizeOf(colors);
+        if (size > maxBytes) {
+            return;
+        }
+        int[] previous = entries.put(key, colors);
+        if (previous != null) {
+            bytes -= sizeOf(previous);
+        }
+        bytes += size;
+        Iterator<Map.Entry<GraphFingerprint, int[]>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes) {
+            Map.Entry<GraphFingerprint, int[]> entry = eldest.next();
+            bytes -= sizeOf(entry.getValue());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Reads a coloring from the on-disk tier.
+     *
+     * @param key The fingerprint of the graph.
+     * @return The coloring, or null if there is no on-disk tier or it has no such coloring.
+     */
+    private int[] readFromDisk(GraphFingerprint key) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = directory.resolve(key + ".colors");
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (InputStream in = Files.newInputStream(file);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(in))) {
+            // A corrupt or truncated file must not decide how much is allocated
+            int length = data.readInt();
+            if (length != key.getVertices()) {
+                return null;
+            }
+            int[] colors = new int[length];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = data.readInt();
+            }
+            return colors;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes a coloring to the on-disk tier, through a temporary file so readers never see half of it.
+     *
+     * @param key    The fingerprint of the graph.
+     * @param colors The coloring.
+     */
+    private void writeToDisk(GraphFingerprint key, int[] colors) {
+        if (directory == null) {
+            return;
+        }
+        Path tmp = null;
+        try {
+            Files.createDirectories(directory);
+            tmp = Files.createTempFile(directory, key.toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp);
+                 DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out))) {
+                data.writeInt(colors.length);
+                for (int color : colors) {
+                    data.writeInt(color);
+                }
+            }
+            Files.move(tmp, directory.resolve(key + ".colors"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // The disk tier is best-effort, like reading it: the coloring stays in memory only
+            deleteQuietly(tmp);
+        }
+    }
+
+    /**
+     * Deletes a temporary file left by a failed write, if there is one.
+     *
+     * @param file The file, or null.
+     */
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Nothing reads temporary files, so one left behind only takes space
+        }
+    }
+
+    /**
+     * Checks that a coloring fits the graph, colors every vertex that was not removed and gives adjacent
+     * vertices different colors.
+     *
+     * @param graph  The graph.
+     * @param colors The coloring, with -1 for removed vertices.
+     * @return True if the coloring is proper, otherwise false.
+     */
+    private static boolean isProperColoring(AdjacencyStore graph, int[] colors) {
+        if (colors.length != graph.getVertices()) {
+            return false;
+        }
+        for (int v = 0; v < colors.length; v++) {
+            if (colors[v] < -1 || colors[v] == -1 && !graph.isRemoved(v)) {
+                return false;
+            }
+            if (colors[v] == -1) {
+                continue;
+            }
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                int neighbor = graph.getNeighbor(v, i);
+                if (neighbor != v && colors[neighbor] == colors[v]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimates the memory taken by a cached coloring.
+     *
+     * @param colors The coloring.
+     * @return The size in bytes.
+     */
+    private static long sizeOf(int[] colors) {
+        return 16 + 4L * colors.length;
+    }
+
+    /**
+     * Returns the number of lookups answered from memory.
+     *
+     * @return The number of memory hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups answered from disk.
+     *
+     * @return The number of disk hits.
+     */
+    public long getDiskHits() {
+        return diskHits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to run the coloring engine.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of colorings evicted from memory.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Builds a report of the counters and the memory in use, for monitoring.
+     *
+     * @return An ordered map from counter name to value.
+     */
+    public synchronized Map<String, Long> report() {
+        Map<String, Long> report = new LinkedHashMap<>();
+        report.put("cache.hits", getHits());
+        report.put("cache.disk_hits", getDiskHits());
+        report.put("cache.misses", getMisses());
+        report.put("cache.evictions", getEvictions());
+        report.put("cache.entries", (long) entries.size());
+        report.put("cache.bytes", bytes);
+        return report;
+    }
+}
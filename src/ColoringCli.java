@@ -0,0 +1,204 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * ColoringCli is the headless entry point: it reads a graph, colors it with Brooks' algorithm and writes
+ * the colors out, one process per graph. It uses no AWT or Swing class, directly or through the engine,
+ * and no reflection: the color search stays scalar and flight recorder events are off, so neither the
+ * vector search nor {@code jdk.jfr} is loaded. It thus starts fast from a class data sharing archive or
+ * as a GraalVM native image.
+ * <p>
+ * The input is the number of vertices followed by the edges as pairs of vertices, separated by any
+ * whitespace; duplicate edges and self-loops are dropped. The output has one line per vertex with the
+ * vertex and its color. A disconnected graph is colored component by component.
+ * <p>
+ * Usage: {@code java ColoringCli [input [output]]}, where a missing file or {@code -} stands for the
+ * standard input or output.
+ */
+public class ColoringCli {
+
+    /**
+     * Colors the graph of the input file and writes its colors to the output file.
+     *
+     * @param args The input and output files, both optional.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length > 2) {
+            System.err.println("Usage: java ColoringCli [input [output]]");
+            System.exit(2);
+        }
+        // The vector search of large palettes is a service provider, which a native image would have to register
+        ColorBitmask.setVectorScan(false);
+        Graph graph;
+        try (InputStream in = args.length > 0 && !args[0].equals("-") ? Files.newInputStream(Path.of(args[0])) : System.in) {
+            graph = read(in);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(1);
+            return;
+        }
+        int[] colors = color(graph);
+        if (args.length > 1 && !args[1].equals("-")) {
+            try (OutputStream out = Files.newOutputStream(Path.of(args[1]))) {
+                write(out, colors);
+            }
+        } else {
+            write(System.out, colors);
+        }
+    }
+
+    /**
+     * Reads a graph: the number of vertices, then the edges as pairs of vertices.
+     *
+     * @param in The stream to read.
+     * @return The graph, without duplicate edges or self-loops.
+     * @throws IOException              If the stream cannot be read.
+     * @throws IllegalArgumentException If the input is not a graph.
+     */
+    public static Graph read(InputStream in) throws IOException {
+        InputStream buffered = new BufferedInputStream(in, 1 << 16);
+        long vertices = readNumber(buffered);
+        if (vertices < 0 || vertices > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The input does not start with a number of vertices");
+        }
+        GraphBuilder builder = new GraphBuilder((int) vertices);
+        while (true) {
+            long from = readNumber(buffered);
+            if (from == -1) break;
+            long to = readNumber(buffered);
+            if (to == -1) {
+                throw new IllegalArgumentException("The edge from " + from + " has no second vertex");
+            }
+            builder.addEdge((int) Math.min(from, Integer.MAX_VALUE), (int) Math.min(to, Integer.MAX_VALUE));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Colors a graph with Brooks' algorithm, one connected component at a time.
+     *
+     * @param graph The graph to color.
+     * @return An array containing the colors of the vertices, -1 for removed vertices.
+     */
+    public static int[] color(Graph graph) {
+        int n = graph.getVertices();
+        ParallelBfs bfs = new ParallelBfs(graph);
+        int[] component = bfs.labelComponents();
+        int components = bfs.getComponentCount();
+        if (components <= 1) {
+            return newColoring(graph).brooksAlgorithm(null);
+        }
+
+        // Group the vertices by component with a counting sort, so each component is a run of members
+        int[] offsets = new int[components + 1];
+        for (int v = 0; v < n; v++) {
+            if (component[v] != -1) {
+                offsets[component[v] + 1]++;
+            }
+        }
+        for (int c = 0; c < components; c++) {
+            offsets[c + 1] += offsets[c];
+        }
+        int[] members = new int[offsets[components]];
+        int[] local = new int[n];
+        int[] size = new int[components];
+        for (int v = 0; v < n; v++) {
+            if (component[v] != -1) {
+                local[v] = size[component[v]]++;
+                members[offsets[component[v]] + local[v]] = v;
+            }
+        }
+
+        int[] colors = new int[n];
+        Arrays.fill(colors, -1);
+        for (int c = 0; c < components; c++) {
+            int start = offsets[c];
+            int end = offsets[c + 1];
+            Graph part = new Graph(end - start);
+            for (int i = start; i < end; i++) {
+                int v = members[i];
+                part.getAdjacencyList()[i - start].ensureCapacity(graph.getDegree(v));
+                for (int j = 0; j < graph.getDegree(v); j++) {
+                    int u = graph.getNeighbor(v, j);
+                    if (!graph.isRemoved(u)) {
+                        part.getAdjacencyList()[i - start].add(local[u]);
+                    }
+                }
+            }
+            int[] partColors = newColoring(part).brooksAlgorithm(null);
+            for (int i = start; i < end; i++) {
+                colors[members[i]] = partColors[i - start];
+            }
+        }
+        return colors;
+    }
+
+    /**
+     * Creates the engine for one graph. Flight recorder events are off, as loading the recorder would
+     * take longer than coloring a small graph.
+     *
+     * @param graph The graph to color.
+     * @return The engine.
+     */
+    private static GraphColoring newColoring(Graph graph) {
+        GraphColoring coloring = new GraphColoring(graph);
+        coloring.setFlightRecorderEvents(false);
+        return coloring;
+    }
+
+    /**
+     * Writes a coloring, one line per vertex with the vertex and its color.
+     *
+     * @param out    The stream to write to. It is flushed, not closed.
+     * @param colors An array representing the colors of the vertices.
+     * @throws IOException If the stream cannot be written.
+     */
+    public static void write(OutputStream out, int[] colors) throws IOException {
+        BufferedOutputStream buffered = new BufferedOutputStream(out, 1 << 16);
+        StringBuilder line = new StringBuilder(24);
+        for (int v = 0; v < colors.length; v++) {
+            line.setLength(0);
+            line.append(v).append(' ').append(colors[v]).append('\n');
+            buffered.write(line.toString().getBytes(StandardCharsets.US_ASCII));
+        }
+        buffered.flush();
+    }
+
+    /**
+     * Reads the next non-negative decimal number, skipping the whitespace before it.
+     *
+     * @param in The stream to read.
+     * @return The number, or -1 at the end of the stream.
+     * @throws IOException              If the stream cannot be read.
+     * @throws IllegalArgumentException If something other than a number or whitespace comes next.
+     */
+    private static long readNumber(InputStream in) throws IOException {
+        int c = in.read();
+        while (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+            c = in.read();
+        }
+        if (c == -1) {
+            return -1;
+        }
+        if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Unexpected character '" + (char) c + "' in the input");
+        }
+        long number = 0;
+        while (c >= '0' && c <= '9') {
+            number = Math.min(number * 10 + (c - '0'), Long.MAX_VALUE / 10);
+            c = in.read();
+        }
+        if (c != -1 && c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+            throw new IllegalArgumentException("Unexpected character '" + (char) c + "' in the input");
+        }
+        return number;
+    }
+}
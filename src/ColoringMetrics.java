@@ -0,0 +1,191 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ColoringMetrics collects per-phase timings and counters for a coloring run.
+ * A disabled instance ignores every call, so the engine can hold one unconditionally.
+ */
+public class ColoringMetrics {
+
+    /**
+     * The phases of a coloring run that are timed separately.
+     */
+    public enum Phase {
+        CLASSIFICATION, ORDERING, CUT_VERTEX, NON_TRIANGLE, GREEDY, RECONCILIATION, LOWER_BOUND, REDUCTION
+    }
+
+    /**
+     * The events of a coloring run that are counted.
+     */
+    public enum Counter {
+        VERTICES_COLORED, GRAPH_COPIES, DFS_VISITS, PARALLEL_ROUNDS, SPECULATIVE_CONFLICTS, KEMPE_INTERCHANGES
+    }
+
+    /**
+     * Shared instance that records nothing.
+     */
+    public static final ColoringMetrics DISABLED = new ColoringMetrics(false);
+
+    private final boolean enabled;
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final long[] phaseCalls = new long[Phase.values().length];
+    private final long[] counters = new long[Counter.values().length];
+    private long runStart;
+    private long runNanos;
+    private long allocationStart = -1;
+    private long allocatedBytes = -1;
+
+    /**
+     * Constructs a new, enabled ColoringMetrics object.
+     */
+    public ColoringMetrics() {
+        this(true);
+    }
+
+    /**
+     * Constructs a new ColoringMetrics object.
+     *
+     * @param enabled Whether calls should be recorded at all.
+     */
+    private ColoringMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns whether this object records anything.
+     *
+     * @return True if the metrics are enabled, otherwise false.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Marks the start of a run. Allocation is measured on the calling thread, where supported.
+     */
+    public void beginRun() {
+        if (!enabled) return;
+        allocationStart = threadAllocatedBytes();
+        runStart = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a run started with {@link #beginRun()}.
+     */
+    public void endRun() {
+        if (!enabled) return;
+        runNanos += System.nanoTime() - runStart;
+        long allocationEnd = threadAllocatedBytes();
+        if (allocationStart != -1 && allocationEnd != -1) {
+            allocatedBytes = Math.max(allocatedBytes, 0) + allocationEnd - allocationStart;
+        }
+    }
+
+    /**
+     * Starts timing a phase.
+     *
+     * @return The start timestamp to pass to {@link #endPhase}, or 0 if disabled.
+     */
+    public long startPhase() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Stops timing a phase and adds the elapsed time to its total.
+     *
+     * @param phase The phase being timed.
+     * @param start The timestamp returned by {@link #startPhase()}.
+     */
+    public void endPhase(Phase phase, long start) {
+        if (!enabled) return;
+        phaseNanos[phase.ordinal()] += System.nanoTime() - start;
+        phaseCalls[phase.ordinal()]++;
+    }
+
+    /**
+     * Adds an amount to a counter.
+     *
+     * @param counter The counter to update.
+     * @param amount  The amount to add.
+     */
+    public void add(Counter counter, long amount) {
+        if (!enabled) return;
+        counters[counter.ordinal()] += amount;
+    }
+
+    /**
+     * Returns the total time spent in a phase.
+     *
+     * @param phase The phase.
+     * @return The time in nanoseconds.
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Returns the value of a counter.
+     *
+     * @param counter The counter.
+     * @return The counter value.
+     */
+    public long getCounter(Counter counter) {
+        return counters[counter.ordinal()];
+    }
+
+    /**
+     * Builds a structured report of everything recorded so far.
+     * Keys are stable: "run.nanos", "phase.&lt;name&gt;.nanos", "phase.&lt;name&gt;.calls",
+     * "counter.&lt;name&gt;" and, when measurable, "allocated.bytes".
+     *
+     * @return An ordered map from metric name to value.
+     */
+    public Map<String, Long> report() {
+        Map<String, Long> report = new LinkedHashMap<>();
+        report.put("run.nanos", runNanos);
+        for (Phase phase : Phase.values()) {
+            String name = phase.name().toLowerCase();
+            report.put("phase." + name + ".nanos", phaseNanos[phase.ordinal()]);
+            report.put("phase." + name + ".calls", phaseCalls[phase.ordinal()]);
+        }
+        for (Counter counter : Counter.values()) {
+            report.put("counter." + counter.name().toLowerCase(), counters[counter.ordinal()]);
+        }
+        if (allocatedBytes != -1) {
+            report.put("allocated.bytes", allocatedBytes);
+        }
+        return report;
+    }
+
+    /**
+     * Returns the report as one "name=value" pair per line.
+     *
+     * @return The formatted report.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, Long> entry : report().entrySet()) {
+            sb.append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads the bytes allocated so far by the current thread.
+     *
+     * @return The allocated bytes, or -1 if the JVM does not support the measurement.
+     */
+    private static long threadAllocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getCurrentThreadAllocatedBytes();
+            }
+        }
+        return -1;
+    }
+}
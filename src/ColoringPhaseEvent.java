@@ -0,0 +1,23 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * ColoringPhaseEvent is a Java Flight Recorder event covering one phase of a coloring run,
+ * such as the classification of the graph or the greedy coloring.
+ */
+@Name("brooks.ColoringPhase")
+@Label("Coloring Phase")
+@StackTrace(false)
+@Category({"Graph Coloring"})
+@Description("One phase of a run of the Brooks algorithm")
+public class ColoringPhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("Vertices")
+    int vertices;
+}
@@ -0,0 +1,41 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * ColoringRunEvent is a Java Flight Recorder event covering one run of the Brooks algorithm.
+ * Its duration is the duration of the run.
+ */
+@Name("brooks.ColoringRun")
+@Label("Coloring Run")
+@StackTrace(false)
+@Category({"Graph Coloring"})
+@Description("One run of the Brooks algorithm")
+public class ColoringRunEvent extends Event {
+    @Label("Branch")
+    @Description("The case of the algorithm that colored the graph")
+    String branch;
+
+    @Label("Vertices")
+    int vertices;
+
+    @Label("Edges")
+    long edges;
+
+    @Label("Max Degree")
+    int maxDegree;
+
+    @Label("Block Count")
+    @Description("The number of subgraphs that were colored separately")
+    int blockCount;
+
+    @Label("Colors Used")
+    int colorsUsed;
+
+    @Label("Lower Bound")
+    @Description("The size of the largest clique found, or a bound from the shape of the graph")
+    int lowerBound;
+}
@@ -0,0 +1,58 @@
+/**
+ * ColoringView is what the coloring engine shows a run on, such as the {@link GraphColoringGUI}.
+ * The engine only sees this interface, so headless code that uses {@link GraphColoring} does not
+ * depend on AWT or Swing.
+ */
+public interface ColoringView {
+
+    /**
+     * Updates the colors of the vertices and the status message.
+     *
+     * @param colors        An array of color values for each vertex.
+     * @param statusMessage The status message to be displayed.
+     */
+    void updateColors(int[] colors, String statusMessage);
+
+    /**
+     * Displays the number of colors used.
+     *
+     * @param chromaticIndex The number of colors used.
+     */
+    void displayChromaticIndex(int chromaticIndex);
+
+    /**
+     * Displays the bounds on the chromatic number.
+     *
+     * @param lowerBound The lower bound.
+     * @param upperBound The upper bound.
+     */
+    void displayChromaticNumber(int lowerBound, int upperBound);
+
+    /**
+     * Shows a spanning tree next to the graph while it is used to color the graph.
+     *
+     * @param tree     The spanning tree as a Graph object.
+     * @param ordering The painting order of the vertices; -1 entries are skipped.
+     * @return The view of the tree.
+     */
+    TreeView showTree(Graph tree, int[] ordering);
+
+    /**
+     * TreeView is what the coloring engine shows a spanning tree on, such as the {@link TreeGUI}.
+     */
+    interface TreeView {
+
+        /**
+         * Updates the colors of the vertices and the status message.
+         *
+         * @param colors        An array of color values for each vertex.
+         * @param statusMessage The status message to be displayed.
+         */
+        void updateColors(int[] colors, String statusMessage);
+
+        /**
+         * Closes the view.
+         */
+        void dispose();
+    }
+}
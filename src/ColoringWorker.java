@@ -0,0 +1,204 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Arrays;
+
+/**
+ * ColoringWorker is the worker process of {@link DistributedColoring}. It connects to the coordinator,
+ * receives the rows of its shard of the vertices, colors them greedily, and then takes part in rounds
+ * in which it receives the colors of the neighbors owned by other shards and recolors the boundary
+ * vertices that conflict with them.
+ * <p>
+ * A worker only holds its shard: the owned vertices are numbered locally from 0 and the neighbors owned
+ * by other shards (ghosts) after them, so its rows and colors are sized by the shard and its ghosts, not
+ * by the whole graph. The shard is an {@link AdjacencyStore}, colored with {@link GreedyColoring}.
+ * <p>
+ * Usage: {@code java ColoringWorker <host> <port>}
+ */
+public class ColoringWorker {
+    private Shard shard;
+    private int[] colors;
+    private int maxDegree;
+    private final ColorBitmask forbidden = new ColorBitmask(0);
+
+    /**
+     * Runs a worker until the coordinator ends the coloring.
+     *
+     * @param args The host and port of the coordinator.
+     * @throws IOException If the connection to the coordinator fails.
+     */
+    public static void main(String[] args) throws IOException {
+        try (Socket socket = new Socket(args[0], Integer.parseInt(args[1]));
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+            new ColoringWorker().run(in, out);
+        }
+    }
+
+    /**
+     * Follows the protocol of the coordinator.
+     *
+     * @param in  The stream from the coordinator.
+     * @param out The stream to the coordinator.
+     * @throws IOException If the connection to the coordinator fails.
+     */
+    private void run(DataInputStream in, DataOutputStream out) throws IOException {
+        shard = Shard.read(in);
+        maxDegree = shard.getMaxDegree();
+        int size = shard.size;
+
+        // Color the shard as if it were alone, in vertex order; the ghosts stay uncolored
+        int[] ordering = new int[size];
+        for (int i = 0; i < size; i++) {
+            ordering[i] = i;
+        }
+        colors = GreedyColoring.color(shard, ordering, maxDegree);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(colors[i]);
+        }
+        out.flush();
+
+        // Rounds: receive the colors of the ghosts, in the order of their vertices, and recolor the conflicts
+        while (true) {
+            int ghosts = in.readInt();
+            if (ghosts == -1) {
+                return;
+            }
+            if (ghosts != shard.ghosts.length) {
+                throw new IOException("Expected the colors of " + shard.ghosts.length + " ghosts, got " + ghosts);
+            }
+            for (int k = 0; k < ghosts; k++) {
+                colors[size + k] = in.readInt();
+            }
+            int[] changed = new int[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (hasConflict(i)) {
+                    changed[count++] = i;
+                }
+            }
+            // Recolor in order, so conflicts between recolored vertices of this shard cannot arise
+            for (int i = 0; i < count; i++) {
+                colors[changed[i]] = -1;
+            }
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                int v = changed[i];
+                colors[v] = GreedyColoring.leastAvailableColor(shard, colors, v, maxDegree, forbidden);
+                out.writeInt(shard.first + v);
+                out.writeInt(colors[v]);
+            }
+            out.flush();
+        }
+    }
+
+    /**
+     * Checks if an owned vertex shares its color with a smaller neighbor owned by another shard.
+     * The larger vertex of a conflicting pair always gives way.
+     *
+     * @param v The local number of the owned vertex.
+     * @return True if the vertex must be recolored, otherwise false.
+     */
+    private boolean hasConflict(int v) {
+        for (int i = 0; i < shard.getDegree(v); i++) {
+            int neighbor = shard.getNeighbor(v, i);
+            if (neighbor >= shard.size && shard.global(neighbor) < shard.global(v) && colors[neighbor] == colors[v]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shard is the part of the graph a worker holds, in local numbers: the owned vertices from 0, then the
+     * ghosts. The rows of the ghosts are not known, so they have no neighbors here.
+     */
+    private static final class Shard implements AdjacencyStore {
+        private final int first;
+        private final int size;
+        private final int[] ghosts;
+        private final int[][] rows;
+
+        /**
+         * Constructs a new Shard object.
+         *
+         * @param first  The first owned vertex of the graph.
+         * @param size   The number of owned vertices.
+         * @param ghosts The ghosts, in increasing order of their vertices.
+         * @param rows   The neighbors of each owned vertex, in local numbers.
+         */
+        private Shard(int first, int size, int[] ghosts, int[][] rows) {
+            this.first = first;
+            this.size = size;
+            this.ghosts = ghosts;
+            this.rows = rows;
+        }
+
+        /**
+         * Reads a shard from the coordinator: the first owned vertex, the number of owned vertices, the
+         * ghosts in increasing order, then the row of each owned vertex.
+         *
+         * @param in The stream from the coordinator.
+         * @return The shard, with its rows in local numbers.
+         * @throws IOException If the stream cannot be read or a neighbor is not in the shard.
+         */
+        private static Shard read(DataInputStream in) throws IOException {
+            int first = in.readInt();
+            int size = in.readInt();
+            int[] ghosts = new int[in.readInt()];
+            for (int k = 0; k < ghosts.length; k++) {
+                ghosts[k] = in.readInt();
+            }
+            int[][] rows = new int[size][];
+            for (int i = 0; i < size; i++) {
+                rows[i] = new int[in.readInt()];
+                for (int j = 0; j < rows[i].length; j++) {
+                    int neighbor = in.readInt();
+                    if (neighbor >= first && neighbor < first + size) {
+                        rows[i][j] = neighbor - first;
+                        continue;
+                    }
+                    int k = Arrays.binarySearch(ghosts, neighbor);
+                    if (k < 0) {
+                        throw new IOException("Neighbor " + neighbor + " of vertex " + (first + i) + " is not a ghost");
+                    }
+                    rows[i][j] = size + k;
+                }
+            }
+            return new Shard(first, size, ghosts, rows);
+        }
+
+        /**
+         * Translates a local number back to the vertex of the graph.
+         *
+         * @param v The local number.
+         * @return The vertex.
+         */
+        private int global(int v) {
+            return v < size ? first + v : ghosts[v - size];
+        }
+
+        @Override
+        public int getVertices() {
+            return size + ghosts.length;
+        }
+
+        @Override
+        public int getDegree(int v) {
+            return v < size ? rows[v].length : 0;
+        }
+
+        @Override
+        public int getNeighbor(int v, int index) {
+            return rows[v][index];
+        }
+
+        @Override
+        public boolean isRemoved(int v) {
+            return false;
+        }
+    }
+}
@@ -1,22 +1,25 @@
-import java.util.*;
-
 /**
  * CutVertexFinder is a class that finds cut vertices (articulation points) in a graph.
+ * Graphs with at least {@link #PARALLEL_THRESHOLD} vertices are searched with
+ * {@link TarjanVishkinBiconnectivity} on all cores, smaller ones with a sequential depth-first search.
  */
 public class CutVertexFinder {
-    private Graph graph;
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private AdjacencyStore graph;
     private int time;
     private int[] visitedTime;
     private int[] lowTime;
-    private boolean[] visited;
-    private boolean[] isCutVertex;
+    private ScratchArena.Stamps visited;
+    private ScratchArena.Stamps isCutVertex;
+    private int visits;
 
     /**
      * Constructor for CutVertexFinder class.
      *
      * @param graph The input graph to find cut vertices.
      */
-    public CutVertexFinder(Graph graph) {
+    public CutVertexFinder(AdjacencyStore graph) {
         this.graph = graph;
     }
 
@@ -28,62 +31,120 @@ public class CutVertexFinder {
     public int findCutVertices() {
         int n = graph.getVertices();
 
-        visitedTime = new int[n];
-        lowTime = new int[n];
-        visited = new boolean[n];
-        isCutVertex = new boolean[n];
         time = 0;
-
-        for (int i = 0; i < n; i++) {
-            if (!visited[i]) {
-                dfs(i, -1);
+        visits = 0;
+        boolean[] parallelResult = n >= PARALLEL_THRESHOLD ? new TarjanVishkinBiconnectivity(graph).findCutVertices() : null;
+        if (parallelResult != null) {
+            visits = n;
+            // Both searches report the smallest cut vertex, so the choice does not change the coloring
+            for (int i = 0; i < n; i++) {
+                if (parallelResult[i]) {
+                    return i;
+                }
             }
+            return -1;
         }
 
-        Set<Integer> cutVertices = new HashSet<>();
-        for (int i = 0; i < n; i++) {
-            if (isCutVertex[i]) {
-                cutVertices.add(i);
+        // Small and disconnected graphs take the depth-first search, whose arrays are borrowed from the
+        // thread's arena; the times are written before they are read
+        ScratchArena arena = ScratchArena.current();
+        int mark = arena.mark();
+        try {
+            visitedTime = arena.ints(n);
+            lowTime = arena.ints(n);
+            visited = arena.stamps(n);
+            isCutVertex = arena.stamps(n);
+            int[] stack = arena.ints(n);
+            int[] next = arena.ints(n);
+            for (int i = 0; i < n; i++) {
+                if (!visited.contains(i)) {
+                    dfs(i, stack, next);
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                if (isCutVertex.contains(i)) {
+                    return i;
+                }
             }
-        }
-        if (cutVertices.isEmpty()){
             return -1;
+        } finally {
+            visitedTime = lowTime = null;
+            visited = isCutVertex = null;
+            arena.release(mark);
         }
-        return (int) cutVertices.toArray()[0];
     }
 
     /**
-     * Depth-First Search to find cut vertices.
+     * Returns the number of vertices visited by the last search.
      *
-     * @param node   The current node being visited.
-     * @param parent The parent node of the current node.
+     * @return The number of DFS visits.
      */
-    private void dfs(int node, int parent) {
-        visited[node] = true;
-        visitedTime[node] = lowTime[node] = time++;
-        int childrenCount = 0;
+    public int getVisitCount() {
+        return visits;
+    }
+
+    /**
+     * Depth-First Search to find cut vertices, with an explicit stack so a graph with a long path does
+     * not overflow the thread's stack. The parent of each node is the one below it on the stack.
+     *
+     * @param root  The node to start from.
+     * @param stack The nodes being searched, at least as long as the graph.
+     * @param next  The index of the next neighbor of each node on the stack.
+     */
+    private void dfs(int root, int[] stack, int[] next) {
+        int top = 0;
+        stack[0] = root;
+        next[0] = 0;
+        visit(root);
+        int rootChildren = 0;
 
-        for (int neighbor : graph.getAdjacencyList()[node]) {
-            if (neighbor == parent) {
+        while (top >= 0) {
+            int node = stack[top];
+            int parent = top > 0 ? stack[top - 1] : -1;
+            if (next[top] < graph.getDegree(node)) {
+                int neighbor = graph.getNeighbor(node, next[top]++);
+                if (neighbor == parent) {
+                    continue;
+                }
+                if (!visited.contains(neighbor)) {
+                    if (parent == -1) {
+                        rootChildren++;
+                    }
+                    visit(neighbor);
+                    stack[++top] = neighbor;
+                    next[top] = 0;
+                } else {
+                    lowTime[node] = Math.min(lowTime[node], visitedTime[neighbor]);
+                }
                 continue;
             }
-            if (!visited[neighbor]) {
-                childrenCount++;
-                dfs(neighbor, node);
-                lowTime[node] = Math.min(lowTime[node], lowTime[neighbor]);
 
-                // If the current node is a cut vertex, mark it as such
-                if (visitedTime[node] <= lowTime[neighbor] && parent != -1) {
-                    isCutVertex[node] = true;
+            // The node is done: pass its low time up to its parent
+            top--;
+            if (parent != -1) {
+                lowTime[parent] = Math.min(lowTime[parent], lowTime[node]);
+
+                // If the parent is not the root and the node cannot reach above it, the parent is a cut vertex
+                if (visitedTime[parent] <= lowTime[node] && top > 0) {
+                    isCutVertex.add(parent);
                 }
-            } else {
-                lowTime[node] = Math.min(lowTime[node], visitedTime[neighbor]);
             }
         }
 
         // If the root node has more than one child, it is a cut vertex
-        if (parent == -1 && childrenCount > 1) {
-            isCutVertex[node] = true;
+        if (rootChildren > 1) {
+            isCutVertex.add(root);
         }
     }
+
+    /**
+     * Marks a node as visited and stamps it with the next time.
+     *
+     * @param node The node.
+     */
+    private void visit(int node) {
+        visited.add(node);
+        visits++;
+        visitedTime[node] = lowTime[node] = time++;
+    }
 }
@@ -0,0 +1,108 @@
+import java.util.BitSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.CancellationException;
+
+/**
+ * DSaturOrdering orders the vertices of a graph as the DSatur algorithm colors them: the next vertex
+ * is always the one whose colored neighbors use the most distinct colors (its saturation), with ties
+ * broken by degree. Coloring greedily in this order reproduces the DSatur coloring.
+ * <p>
+ * The uncolored vertices are kept in a priority queue keyed on saturation; a vertex whose saturation
+ * grows is pushed again and its stale entry is skipped when polled, so the ordering takes
+ * O((n+m) log n) time. An interruptible ordering stops with a {@link CancellationException} if the
+ * thread is interrupted.
+ */
+public class DSaturOrdering implements OrderingStrategy {
+    // Interruption is checked once every CHECK_MASK + 1 vertices
+    private static final int CHECK_MASK = 1023;
+
+    private boolean interruptible;
+
+    /**
+     * Sets whether the ordering stops when the thread is interrupted. By default it runs to the end,
+     * so callers that handle interruption themselves always get an ordering.
+     *
+     * @param interruptible True to stop on interruption, otherwise false.
+     */
+    public void setInterruptible(boolean interruptible) {
+        this.interruptible = interruptible;
+    }
+
+    /**
+     * Finds the DSatur ordering of the vertices of the graph.
+     *
+     * @param graph The graph to order.
+     * @return An array of integers representing the order of vertices in the graph.
+     * @throws CancellationException If the ordering is interruptible and the thread was interrupted.
+     */
+    @Override
+    public int[] findOrdering(AdjacencyStore graph) {
+        int n = graph.getVertices();
+        int[] colors = new int[n];
+        int[] saturation = new int[n];
+        BitSet[] neighborColors = new BitSet[n];
+        PriorityQueue<int[]> queue = new PriorityQueue<>((a, b) -> a[1] != b[1] ? Integer.compare(b[1], a[1])
+                : a[2] != b[2] ? Integer.compare(b[2], a[2])
+                : Integer.compare(a[0], b[0]));
+
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            colors[v] = -1;
+            if (!graph.isRemoved(v)) {
+                queue.add(new int[]{v, 0, graph.getDegree(v)});
+                count++;
+            }
+        }
+
+        int[] ordering = new int[count];
+        int index = 0;
+        ColorBitmask forbidden = new ColorBitmask(0);
+        while (index < count) {
+            int[] entry = queue.poll();
+            int v = entry[0];
+            if (colors[v] != -1 || entry[1] != saturation[v]) {
+                continue; // Stale entry
+            }
+            if (interruptible && (index & CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("DSatur ordering was interrupted");
+            }
+            colors[v] = leastAvailableColor(v, colors, graph, forbidden);
+            ordering[index++] = v;
+
+            // Every uncolored neighbor that did not see this color yet becomes more saturated
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                int neighbor = graph.getNeighbor(v, i);
+                if (colors[neighbor] != -1 || graph.isRemoved(neighbor)) {
+                    continue;
+                }
+                if (neighborColors[neighbor] == null) {
+                    neighborColors[neighbor] = new BitSet();
+                }
+                if (!neighborColors[neighbor].get(colors[v])) {
+                    neighborColors[neighbor].set(colors[v]);
+                    saturation[neighbor]++;
+                    queue.add(new int[]{neighbor, saturation[neighbor], graph.getDegree(neighbor)});
+                }
+            }
+        }
+        return ordering;
+    }
+
+    /**
+     * Find the least color not used by any colored neighbor of a vertex.
+     *
+     * @param v         The vertex to find the least available color for.
+     * @param colors    An array representing the colors of the vertices.
+     * @param graph     The graph.
+     * @param forbidden The set to collect the colors of the neighbors in; its content is replaced.
+     * @return The least available color.
+     */
+    private static int leastAvailableColor(int v, int[] colors, AdjacencyStore graph, ColorBitmask forbidden) {
+        int degree = graph.getDegree(v);
+        forbidden.reset(degree);
+        for (int i = 0; i < degree; i++) {
+            forbidden.forbid(colors[graph.getNeighbor(v, i)]);
+        }
+        return forbidden.firstFree();
+    }
+}
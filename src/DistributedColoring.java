@@ -0,0 +1,279 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * DistributedColoring is the coordinator of a coloring split over several worker processes.
+ * It splits the vertices into contiguous shards, launches one {@link ColoringWorker} JVM per shard on
+ * this machine, and sends each worker the rows of its shard. The workers color their shards greedily
+ * in parallel; then, in rounds, the coordinator sends every worker the current colors of its neighbors
+ * in other shards, and the workers recolor the boundary vertices that conflict, the larger vertex of a
+ * pair giving way. The rounds end when no worker changes a color.
+ * <p>
+ * The coordinator reads the graph only through {@link AdjacencyStore}, so it may stay off the heap, and
+ * holds the colors and, per shard, the vertices whose colors that shard needs. A worker holds only its
+ * shard and those neighbors. The workers start with default JVM options unless
+ * {@link #setWorkerOptions(List)} gives others.
+ * <p>
+ * If the rounds have not converged after {@link #MAX_ROUNDS}, the coordinator repairs the remaining
+ * conflicts itself, so the result is always a proper coloring.
+ */
+public class DistributedColoring {
+    public static final int MAX_ROUNDS = 100;
+    private static final int ACCEPT_TIMEOUT_MILLIS = 60000;
+
+    private final int shards;
+    private List<String> workerOptions = List.of();
+    private int rounds;
+
+    /**
+     * Constructs a new DistributedColoring object.
+     *
+     * @param shards The number of worker processes.
+     */
+    public DistributedColoring(int shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Sets the JVM options of the worker processes, such as their heap size.
+     *
+     * @param workerOptions The options, put before the class path on the command line of each worker.
+     */
+    public void setWorkerOptions(List<String> workerOptions) {
+        this.workerOptions = List.copyOf(workerOptions);
+    }
+
+    /**
+     * Colors a graph with the worker processes.
+     *
+     * @param graph The graph to color.
+     * @return An array containing the colors of the vertices, -1 for removed vertices.
+     * @throws IOException If a worker cannot be launched or reached.
+     */
+    public int[] color(AdjacencyStore graph) throws IOException {
+        int n = graph.getVertices();
+        int[] bounds = new int[shards + 1];
+        for (int s = 0; s <= shards; s++) {
+            bounds[s] = (int) ((long) n * s / shards);
+        }
+
+        List<Process> processes = new ArrayList<>();
+        List<Socket> sockets = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(0, shards, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(ACCEPT_TIMEOUT_MILLIS);
+            for (int s = 0; s < shards; s++) {
+                processes.add(launchWorker(server.getLocalPort()));
+            }
+            for (int s = 0; s < shards; s++) {
+                sockets.add(server.accept());
+            }
+            return coordinate(graph, bounds, sockets);
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            for (Process process : processes) {
+                try {
+                    process.waitFor();
+                } catch (InterruptedException e) {
+                    process.destroy();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of conflict rounds the last coloring took.
+     *
+     * @return The number of rounds.
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Runs the protocol with the connected workers.
+     *
+     * @param graph   The graph to color.
+     * @param bounds  The first vertex of each shard, and n at the end.
+     * @param sockets The connections to the workers, in any order.
+     * @return An array containing the colors of the vertices, -1 for removed vertices.
+     * @throws IOException If a worker cannot be reached.
+     */
+    private int[] coordinate(AdjacencyStore graph, int[] bounds, List<Socket> sockets) throws IOException {
+        int n = graph.getVertices();
+        DataInputStream[] in = new DataInputStream[shards];
+        DataOutputStream[] out = new DataOutputStream[shards];
+        int[][] ghosts = new int[shards][];
+        for (int s = 0; s < shards; s++) {
+            in[s] = new DataInputStream(new BufferedInputStream(sockets.get(s).getInputStream()));
+            out[s] = new DataOutputStream(new BufferedOutputStream(sockets.get(s).getOutputStream()));
+            ghosts[s] = sendShard(graph, bounds[s], bounds[s + 1], out[s]);
+        }
+
+        int[] colors = new int[n];
+        for (int s = 0; s < shards; s++) {
+            for (int v = bounds[s]; v < bounds[s + 1]; v++) {
+                colors[v] = in[s].readInt();
+            }
+        }
+
+        rounds = 0;
+        boolean changed = true;
+        while (changed && rounds < MAX_ROUNDS) {
+            rounds++;
+            for (int s = 0; s < shards; s++) {
+                // The worker knows its ghosts, so their colors are sent in the same order without the vertices
+                out[s].writeInt(ghosts[s].length);
+                for (int v : ghosts[s]) {
+                    out[s].writeInt(colors[v]);
+                }
+                out[s].flush();
+            }
+            changed = false;
+            for (int s = 0; s < shards; s++) {
+                int count = in[s].readInt();
+                for (int i = 0; i < count; i++) {
+                    int v = in[s].readInt();
+                    colors[v] = in[s].readInt();
+                }
+                changed |= count > 0;
+            }
+        }
+        for (int s = 0; s < shards; s++) {
+            out[s].writeInt(-1);
+            out[s].flush();
+        }
+
+        for (int v = 0; v < n; v++) {
+            if (graph.isRemoved(v)) {
+                colors[v] = -1;
+            }
+        }
+        if (changed) {
+            repairConflicts(graph, colors);
+        }
+        return colors;
+    }
+
+    /**
+     * Sends a worker its shard: the first vertex, the number of vertices, the neighbors owned by other
+     * shards (ghosts) in increasing order, and the row of each vertex. Removed vertices are left out of
+     * the rows.
+     *
+     * @param graph The graph to color.
+     * @param first The first vertex of the shard.
+     * @param end   The vertex after the last vertex of the shard.
+     * @param out   The stream to the worker.
+     * @return The ghosts, whose colors the worker needs each round.
+     * @throws IOException If the worker cannot be reached.
+     */
+    private static int[] sendShard(AdjacencyStore graph, int first, int end, DataOutputStream out) throws IOException {
+        int[] ghosts = findGhosts(graph, first, end);
+        out.writeInt(first);
+        out.writeInt(end - first);
+        out.writeInt(ghosts.length);
+        for (int ghost : ghosts) {
+            out.writeInt(ghost);
+        }
+        for (int v = first; v < end; v++) {
+            int degree = 0;
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                if (!graph.isRemoved(graph.getNeighbor(v, i))) degree++;
+            }
+            out.writeInt(degree);
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                int neighbor = graph.getNeighbor(v, i);
+                if (!graph.isRemoved(neighbor)) {
+                    out.writeInt(neighbor);
+                }
+            }
+        }
+        out.flush();
+        return ghosts;
+    }
+
+    /**
+     * Collects the neighbors of a shard that belong to other shards.
+     *
+     * @param graph The graph to color.
+     * @param first The first vertex of the shard.
+     * @param end   The vertex after the last vertex of the shard.
+     * @return The ghosts, in increasing order.
+     */
+    private static int[] findGhosts(AdjacencyStore graph, int first, int end) {
+        // The set of ghosts seen is borrowed from the thread's arena and reused by the next shard
+        ScratchArena arena = ScratchArena.current();
+        int mark = arena.mark();
+        try {
+            ScratchArena.Stamps seen = arena.stamps(graph.getVertices());
+            int[] ghosts = new int[16];
+            int count = 0;
+            for (int v = first; v < end; v++) {
+                for (int i = 0; i < graph.getDegree(v); i++) {
+                    int neighbor = graph.getNeighbor(v, i);
+                    if ((neighbor < first || neighbor >= end) && !graph.isRemoved(neighbor) && seen.add(neighbor)) {
+                        if (count == ghosts.length) {
+                            ghosts = Arrays.copyOf(ghosts, count * 2);
+                        }
+                        ghosts[count++] = neighbor;
+                    }
+                }
+            }
+            ghosts = Arrays.copyOf(ghosts, count);
+            Arrays.sort(ghosts);
+            return ghosts;
+        } finally {
+            arena.release(mark);
+        }
+    }
+
+    /**
+     * Recolors, in vertex order, every vertex that still shares its color with a smaller neighbor.
+     *
+     * @param graph  The graph being colored.
+     * @param colors The colors of the vertices, updated in place.
+     */
+    private static void repairConflicts(AdjacencyStore graph, int[] colors) {
+        for (int v = 0; v < colors.length; v++) {
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                int neighbor = graph.getNeighbor(v, i);
+                if (neighbor < v && colors[neighbor] == colors[v]) {
+                    colors[v] = -1;
+                    colors[v] = GreedyColoring.leastAvailableColor(graph, colors, v, graph.getDegree(v));
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Launches a worker JVM with the class path of this one and the worker options.
+     *
+     * @param port The port the coordinator listens on.
+     * @return The worker process.
+     * @throws IOException If the process cannot be started.
+     */
+    private Process launchWorker(int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(workerOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("ColoringWorker");
+        command.add(InetAddress.getLoopbackAddress().getHostAddress());
+        command.add(Integer.toString(port));
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+}
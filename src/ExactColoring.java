@@ -0,0 +1,387 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ExactColoring finds the chromatic number of graphs of up to a few hundred vertices with the
+ * DSatur branch and bound: the next vertex is always one whose neighbors use the most colors, and it
+ * is tried with every color it may take and with one new color, as long as the partial coloring uses
+ * fewer colors than the best complete one.
+ * <p>
+ * The search starts from an upper bound, such as the coloring of Brooks' algorithm, and from a lower
+ * bound, the size of a clique, and ends as soon as the two meet. The top of the search tree is split
+ * into tasks of a work-stealing {@link ForkJoinPool} sharing the best coloring; each task searches
+ * its subtree sequentially with its own state, undoing every assignment on the way back.
+ */
+public class ExactColoring {
+    public static final int MAX_VERTICES = 512;
+    private static final int SPLIT_DEPTH = 4;
+    private static final int DEADLINE_CHECK_NODES = 1 << 12;
+    private static final long CLIQUE_NODE_BUDGET = 100000;
+
+    private final AdjacencyStore graph;
+    private final int n;
+    private final boolean[] removed;
+    private final int[][] neighbors;
+    private final ForkJoinPool pool;
+
+    private volatile int[] best;
+    private volatile int upperBound;
+    private int lowerBound;
+    private long deadline;
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private volatile boolean timedOut;
+    private final AtomicLong nodes = new AtomicLong();
+    private boolean optimal;
+
+    /**
+     * Constructs a new ExactColoring object for the given graph, searching on the common pool.
+     *
+     * @param graph The graph to color, with at most {@link #MAX_VERTICES} vertices.
+     * @throws IllegalArgumentException If the graph is too large.
+     */
+    public ExactColoring(AdjacencyStore graph) {
+        this(graph, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new ExactColoring object for the given graph.
+     *
+     * @param graph The graph to color, with at most {@link #MAX_VERTICES} vertices.
+     * @param pool  The pool the search runs on.
+     * @throws IllegalArgumentException If the graph is too large.
+     */
+    public ExactColoring(AdjacencyStore graph, ForkJoinPool pool) {
+        if (graph.getVertices() > MAX_VERTICES) {
+            throw new IllegalArgumentException("Exact coloring is limited to " + MAX_VERTICES + " vertices");
+        }
+        this.graph = graph;
+        this.n = graph.getVertices();
+        this.pool = pool;
+        this.removed = new boolean[n];
+        this.neighbors = new int[n][];
+        for (int v = 0; v < n; v++) {
+            if (graph.isRemoved(v)) {
+                removed[v] = true;
+                neighbors[v] = new int[0];
+                continue;
+            }
+            int count = 0;
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                if (!graph.isRemoved(graph.getNeighbor(v, i))) count++;
+            }
+            neighbors[v] = new int[count];
+            count = 0;
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                int u = graph.getNeighbor(v, i);
+                if (graph.isRemoved(u)) continue;
+                neighbors[v][count++] = u;
+            }
+        }
+    }
+
+    /**
+     * Finds a coloring with the fewest colors, or the best one found within the time budget.
+     *
+     * @param initial A coloring to start from, e.g. the result of Brooks' algorithm, or null.
+     *                It is ignored if it is not proper.
+     * @param timeout The time budget.
+     * @param unit    The unit of the time budget.
+     * @return An array containing the colors of the vertices, -1 for removed vertices.
+     */
+    public int[] solve(int[] initial, long timeout, TimeUnit unit) {
+        deadline = System.nanoTime() + unit.toNanos(timeout);
+        stopped.set(false);
+        timedOut = false;
+        nodes.set(0);
+
+        best = GreedyColoring.color(graph, new DSaturOrdering().findOrdering(graph), n);
+        upperBound = countColors(best);
+        if (initial != null && countColors(initial) < upperBound && isProper(initial)) {
+            best = initial.clone();
+            upperBound = countColors(initial);
+        }
+        lowerBound = new CliqueFinder(graph).find(CLIQUE_NODE_BUDGET).length;
+
+        if (upperBound > lowerBound) {
+            pool.invoke(new SearchTask(new SearchState(), 0));
+        }
+        // Unless the time ran out, the search ruled out every coloring with fewer colors
+        optimal = upperBound <= lowerBound || !timedOut;
+        if (optimal) {
+            lowerBound = upperBound;
+        }
+        return best.clone();
+    }
+
+    /**
+     * Returns the number of colors of the best coloring found by the last call to {@link #solve}.
+     *
+     * @return The upper bound on the chromatic number.
+     */
+    public int getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Returns the best proven lower bound on the chromatic number after the last call to {@link #solve}.
+     *
+     * @return The lower bound, equal to the upper bound if the coloring is optimal.
+     */
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Checks if the last call to {@link #solve} proved its coloring optimal.
+     *
+     * @return True if the chromatic number was found, false if the time budget ran out first.
+     */
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    /**
+     * Returns the number of search tree nodes visited by the last call to {@link #solve}.
+     *
+     * @return The number of nodes.
+     */
+    public long getNodes() {
+        return nodes.get();
+    }
+
+    /**
+     * Records a complete coloring if it beats the best one.
+     *
+     * @param colors The coloring.
+     * @param used   The number of colors it uses.
+     */
+    private synchronized void offer(int[] colors, int used) {
+        if (used < upperBound) {
+            best = colors.clone();
+            upperBound = used;
+            if (upperBound <= lowerBound) {
+                stopped.set(true);
+            }
+        }
+    }
+
+    /**
+     * Checks that every vertex is colored and that no two adjacent vertices share a color.
+     *
+     * @param colors An array representing the colors of the vertices.
+     * @return True if the coloring is proper, otherwise false.
+     */
+    private boolean isProper(int[] colors) {
+        for (int v = 0; v < n; v++) {
+            if (removed[v]) continue;
+            if (colors[v] == -1) {
+                return false;
+            }
+            for (int u : neighbors[v]) {
+                if (colors[u] == colors[v]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the colors of a coloring.
+     *
+     * @param colors An array representing the colors of the vertices.
+     * @return The largest color plus one.
+     */
+    private static int countColors(int[] colors) {
+        int maxColor = -1;
+        for (int color : colors) {
+            maxColor = Math.max(maxColor, color);
+        }
+        return maxColor + 1;
+    }
+
+    /**
+     * SearchState is a partial coloring with, for every vertex, how many neighbors have each color.
+     */
+    private class SearchState {
+        private final int[] colors;
+        private final int[][] neighborColors;
+        private final int[] saturation;
+        private int used;
+        private int uncolored;
+
+        /**
+         * Constructs the empty partial coloring.
+         */
+        private SearchState() {
+            colors = new int[n];
+            Arrays.fill(colors, -1);
+            neighborColors = new int[n][upperBound];
+            saturation = new int[n];
+            for (int v = 0; v < n; v++) {
+                if (!removed[v]) uncolored++;
+            }
+        }
+
+        /**
+         * Constructs a copy of a partial coloring.
+         *
+         * @param other The partial coloring to copy.
+         */
+        private SearchState(SearchState other) {
+            colors = other.colors.clone();
+            neighborColors = new int[n][];
+            for (int v = 0; v < n; v++) {
+                neighborColors[v] = other.neighborColors[v].clone();
+            }
+            saturation = other.saturation.clone();
+            used = other.used;
+            uncolored = other.uncolored;
+        }
+
+        /**
+         * Colors a vertex.
+         *
+         * @param v     The vertex.
+         * @param color The color.
+         */
+        private void assign(int v, int color) {
+            colors[v] = color;
+            uncolored--;
+            for (int u : neighbors[v]) {
+                if (neighborColors[u][color]++ == 0) saturation[u]++;
+            }
+        }
+
+        /**
+         * Uncolors a vertex colored by {@link #assign(int, int)}.
+         *
+         * @param v The vertex.
+         */
+        private void unassign(int v) {
+            int color = colors[v];
+            colors[v] = -1;
+            uncolored++;
+            for (int u : neighbors[v]) {
+                if (--neighborColors[u][color] == 0) saturation[u]--;
+            }
+        }
+
+        /**
+         * Picks the uncolored vertex with the highest saturation, ties broken by degree.
+         *
+         * @return The vertex.
+         */
+        private int select() {
+            int pick = -1;
+            for (int v = 0; v < n; v++) {
+                if (colors[v] != -1 || removed[v]) continue;
+                if (pick == -1 || saturation[v] > saturation[pick]
+                        || (saturation[v] == saturation[pick] && neighbors[v].length > neighbors[pick].length)) {
+                    pick = v;
+                }
+            }
+            return pick;
+        }
+    }
+
+    /**
+     * SearchTask searches the subtree below a partial coloring. Near the root it forks a task per
+     * color of the next vertex; deeper it searches sequentially.
+     */
+    private class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final transient SearchState state;
+        private final int depth;
+
+        /**
+         * Constructs a new SearchTask object.
+         *
+         * @param state The partial coloring, owned by this task.
+         * @param depth The number of vertices colored by the search so far.
+         */
+        private SearchTask(SearchState state, int depth) {
+            this.state = state;
+            this.depth = depth;
+        }
+
+        /**
+         * Searches the subtree.
+         */
+        @Override
+        protected void compute() {
+            if (depth < SPLIT_DEPTH) {
+                split();
+            } else {
+                search();
+            }
+        }
+
+        /**
+         * Forks one task per color the next vertex can take.
+         */
+        private void split() {
+            if (isStopped() || state.used >= upperBound) return;
+            if (state.uncolored == 0) {
+                offer(state.colors, state.used);
+                return;
+            }
+            int v = state.select();
+            int limit = Math.min(state.used + 1, upperBound - 1);
+            List<SearchTask> children = new ArrayList<>();
+            for (int color = 0; color < limit; color++) {
+                if (state.neighborColors[v][color] != 0) continue;
+                SearchState child = new SearchState(state);
+                child.assign(v, color);
+                child.used = Math.max(state.used, color + 1);
+                children.add(new SearchTask(child, depth + 1));
+            }
+            invokeAll(children);
+        }
+
+        /**
+         * Searches the subtree sequentially.
+         */
+        private void search() {
+            if (isStopped() || state.used >= upperBound) return;
+            if (state.uncolored == 0) {
+                offer(state.colors, state.used);
+                return;
+            }
+            int v = state.select();
+            int used = state.used;
+            for (int color = 0; color < Math.min(used + 1, upperBound - 1); color++) {
+                if (state.neighborColors[v][color] != 0) continue;
+                state.assign(v, color);
+                state.used = Math.max(used, color + 1);
+                search();
+                state.unassign(v);
+                state.used = used;
+            }
+        }
+
+        /**
+         * Counts a node, and checks if the search should end: the best coloring meets the lower bound,
+         * the deadline passed, or the thread was interrupted.
+         *
+         * @return True if the search should end, otherwise false.
+         */
+        private boolean isStopped() {
+            if (stopped.get()) {
+                return true;
+            }
+            if ((nodes.incrementAndGet() & (DEADLINE_CHECK_NODES - 1)) == 0
+                    && (System.nanoTime() - deadline > 0 || Thread.currentThread().isInterrupted())) {
+                timedOut = true;
+                stopped.set(true);
+            }
+            return stopped.get();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * FlightRecorderEvents begins and commits the flight recorder events of {@link GraphColoring}. It is the
+ * only class of the engine that refers to {@link ColoringRunEvent} and {@link ColoringPhaseEvent}, and
+ * the engine calls it only when events are on, so a run with events off never loads {@code jdk.jfr}.
+ * The events are handed out as plain objects for the same reason.
+ */
+final class FlightRecorderEvents {
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * Begins the event of a run.
+     *
+     * @return The begun event.
+     */
+    static Object beginRun() {
+        ColoringRunEvent event = new ColoringRunEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event of a run and commits it if it is enabled.
+     *
+     * @param run         The event returned by {@link #beginRun()}.
+     * @param branch      The case of the algorithm that colored the graph.
+     * @param vertices    The number of vertices.
+     * @param edges       The number of edges.
+     * @param maxDegree   The maximum degree.
+     * @param blockCount  The number of subgraphs that were colored separately.
+     * @param colorsUsed  The number of colors used.
+     * @param lowerBound  The lower bound on the number of colors.
+     */
+    static void endRun(Object run, String branch, int vertices, long edges, int maxDegree, int blockCount, int colorsUsed, int lowerBound) {
+        ColoringRunEvent event = (ColoringRunEvent) run;
+        event.end();
+        if (event.shouldCommit()) {
+            event.branch = branch;
+            event.vertices = vertices;
+            event.edges = edges;
+            event.maxDegree = maxDegree;
+            event.blockCount = blockCount;
+            event.colorsUsed = colorsUsed;
+            event.lowerBound = lowerBound;
+            event.commit();
+        }
+    }
+
+    /**
+     * Begins the event of a phase.
+     *
+     * @return The begun event.
+     */
+    static Object beginPhase() {
+        ColoringPhaseEvent event = new ColoringPhaseEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event of a phase and commits it if it is enabled.
+     *
+     * @param phase    The event returned by {@link #beginPhase()}.
+     * @param name     The name of the phase.
+     * @param vertices The number of vertices.
+     */
+    static void endPhase(Object phase, String name, int vertices) {
+        ColoringPhaseEvent event = (ColoringPhaseEvent) phase;
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = name;
+            event.vertices = vertices;
+            event.commit();
+        }
+    }
+}
@@ -3,7 +3,7 @@ import java.util.*;
 /**
  * The Graph class represents a graph structure.
  */
-public class Graph {
+public class Graph implements AdjacencyStore {
     private int vertices;
     private ArrayList<Integer>[] adjacencyList;
 
@@ -36,16 +36,37 @@ public class Graph {
      *
      * @return The maximum degree.
      */
+    @Override
     public int getMaxDegree() {
         int maxDegree = 0;
         for (int i = 0; i < vertices; i++) {
-            maxDegree = Math.max(maxDegree, adjacencyList[i].size());
+            maxDegree = Math.max(maxDegree, getDegree(i));
         }
         return maxDegree;
     }
 
     /**
-     * Retrieves the adjacency list of the graph.
+     * Counts the edges of the graph, ignoring removed vertices and the edges to them.
+     *
+     * @return The number of edges between vertices that were not removed.
+     */
+    @Override
+    public long getEdgeCount() {
+        long degreeSum = 0;
+        for (int i = 0; i < vertices; i++) {
+            if (adjacencyList[i] == null) continue;
+            for (int neighbor : adjacencyList[i]) {
+                if (adjacencyList[neighbor] != null) {
+                    degreeSum++;
+                }
+            }
+        }
+        return degreeSum / 2;
+    }
+
+    /**
+     * Retrieves the adjacency list of the graph. The rows are the graph's own and change with it; to
+     * share the graph between threads, take a {@link #snapshot()} instead.
      *
      * @return An array of ArrayLists representing the adjacency list.
      */
@@ -58,107 +79,68 @@ public class Graph {
      *
      * @return The number of vertices.
      */
+    @Override
     public int getVertices() {
         return vertices;
     }
 
     /**
-     * Determines whether the graph is a clique.
+     * Retrieves the degree of a vertex.
      *
-     * @return True if the graph is a clique, otherwise false.
+     * @param v The vertex.
+     * @return The number of neighbors of the vertex, or 0 if it was removed.
      */
-    public boolean isClique() {
-        for (int i = 0; i < vertices; i++) {
-            if (adjacencyList[i].size() != vertices - 1) {
-                return false;
-            }
-        }
-        return true;
+    @Override
+    public int getDegree(int v) {
+        return adjacencyList[v] == null ? 0 : adjacencyList[v].size();
     }
 
     /**
-     * Determines whether the graph contains an odd cycle.
+     * Retrieves a neighbor of a vertex.
      *
-     * @return True if the graph contains an odd cycle, otherwise false.
+     * @param v     The vertex.
+     * @param index The index of the neighbor.
+     * @return The neighbor.
      */
-    public boolean isOddCycle() {
-        if (getMaxDegree() != 2) return false;
-        boolean[] visited = new boolean[vertices];
-        int[] levels = new int[vertices];
-        for (int i = 0; i < vertices; i++) {
-            if (!visited[i]) {
-                if (dfsCycleDetection(i, -1, 0, visited, levels)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+    @Override
+    public int getNeighbor(int v, int index) {
+        return adjacencyList[v].get(index);
     }
 
     /**
-     * Determines whether the graph is connected.
+     * Checks if a vertex was removed from the graph.
      *
-     * @return True if the graph is connected, otherwise false.
+     * @param v The vertex.
+     * @return True if the vertex was removed, otherwise false.
      */
-    public boolean isConnected() {
-        boolean[] visited = new boolean[vertices];
-        dfsConnected(0, visited);
-
-        // Check if all vertices have been visited
-        for (boolean visitStatus : visited) {
-            if (!visitStatus) {
-                return false;
-            }
-        }
-        return true;
+    @Override
+    public boolean isRemoved(int v) {
+        return adjacencyList[v] == null;
     }
 
     /**
-     * Performs a depth-first search to detect cycles in the graph.
+     * Determines whether the graph is a clique.
      *
-     * @param node    The current node being visited.
-     * @param parent  The parent node of the current node.
-     * @param level   The depth level of the current node.
-     * @param visited An array of booleans representing the visitation status of each vertex.
-     * @param levels  An array of integers representing the depth level of each vertex.
-     * @return True if an odd cycle is detected, otherwise false.
+     * @return True if the graph is a clique, otherwise false.
      */
-    private boolean dfsCycleDetection(int node, int parent, int level, boolean[] visited, int[] levels) {
-        visited[node] = true;
-        levels[node] = level;
-
-        for (int neighbor : adjacencyList[node]) {
-            if (!visited[neighbor]) {
-                if (dfsCycleDetection(neighbor, node, level + 1, visited, levels)) {
-                    return true;
-                }
-            } else if (neighbor != parent) {
-                // Cycle detected, now check if it's odd
-                if ((levels[node] - levels[neighbor]) % 2 == 0) {
-                    return true;
-                }
+    @Override
+    public boolean isClique() {
+        for (int i = 0; i < vertices; i++) {
+            if (adjacencyList[i].size() != vertices - 1) {
+                return false;
             }
         }
-        return false;
+        return true;
     }
 
     /**
-     * Performs a depth-first search to determine the connectedness of the graph.
+     * Determines whether the graph has an odd cycle while every vertex has degree at most 2, which for a
+     * connected graph means it is an odd cycle.
      *
-     * @param node    The current node being visited.
-     * @param visited An array of booleans representing the visitation status of each vertex.
+     * @return True if the maximum degree is 2 and the graph is not bipartite, otherwise false.
      */
-    private void dfsConnected(int node, boolean[] visited) {
-        visited[node] = true;
-
-        if (adjacencyList[node] == null) return;
-
-        // Traverse all neighbors of the current node
-        for (int neighbor : adjacencyList[node]) {
-            if (!visited[neighbor]) {
-                dfsConnected(neighbor, visited);
-            }
-        }
+    public boolean isOddCycle() {
+        return getMaxDegree() == 2 && !BipartiteColoring.isBipartite(this);
     }
 
     /**
@@ -168,28 +150,34 @@ public class Graph {
      * @param z The second vertex.
      * @return True if there is an edge between y and z, otherwise false.
      */
+    @Override
     public boolean hasEdge(int y, int z) {
         return this.adjacencyList[y].contains(z);
     }
 
     /**
-     * Creates a deep copy of the graph.
+     * Creates a deep copy of the graph, row by row. Removed vertices stay removed in the copy.
      *
      * @return A new Graph object with the same structure as the original.
      */
     public Graph copy() {
         Graph tmp = new Graph(vertices);
-        for (int i = 0; i < this.adjacencyList.length; i++) {
-            for (int vertex : this.adjacencyList[i]) {
-                if (tmp.adjacencyList[i].contains(vertex)) {
-                    continue;
-                }
-                tmp.addEdge(i, vertex);
-            }
+        for (int i = 0; i < vertices; i++) {
+            tmp.adjacencyList[i] = adjacencyList[i] == null ? null : new ArrayList<>(adjacencyList[i]);
         }
         return tmp;
     }
 
+    /**
+     * Takes an immutable snapshot of the graph, which threads can read concurrently while this graph
+     * keeps changing. Removed vertices stay removed in the snapshot.
+     *
+     * @return The snapshot.
+     */
+    public GraphSnapshot snapshot() {
+        return GraphSnapshot.copyOf(this);
+    }
+
     /**
      * Removes a vertex from the graph by setting its adjacency list entry to null.
      *
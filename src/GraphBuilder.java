@@ -0,0 +1,291 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * GraphBuilder collects the edges of a simple graph, possibly from several threads at once, and
+ * builds the graph with every duplicate edge and self-loop removed.
+ * <p>
+ * Each thread appends to its own primitive buffer, kept in chunks so it never needs one array longer
+ * than a chunk, and adding an edge takes no lock. Building sorts all edges with a parallel sort and
+ * drops repeated ones in parallel blocks. {@link #build()} must only be called once every thread adding
+ * edges has finished, for example after joining them.
+ * {@code OffHeapGraph.from} builds the same graph off the heap, streaming the buffers into rows that it
+ * sorts and deduplicates there, so no array of all edges is made on the heap.
+ */
+public class GraphBuilder {
+    private static final int DEDUP_BLOCK = 1 << 16;
+    private final int vertices;
+    private final Queue<EdgeBuffer> buffers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<EdgeBuffer> localBuffer;
+    private final LongAdder rejectedLoops = new LongAdder();
+    private long duplicateEdges;
+
+    /**
+     * Constructs a new GraphBuilder object for a graph with the specified number of vertices.
+     *
+     * @param vertices The number of vertices in the graph.
+     */
+    public GraphBuilder(int vertices) {
+        this.vertices = vertices;
+        this.localBuffer = ThreadLocal.withInitial(() -> {
+            EdgeBuffer buffer = new EdgeBuffer();
+            buffers.add(buffer);
+            return buffer;
+        });
+    }
+
+    /**
+     * Adds an edge between two vertices. Self-loops are rejected and only counted.
+     *
+     * @param from The starting vertex.
+     * @param to   The ending vertex.
+     * @throws IllegalArgumentException If a vertex is not between 0 and #vertices-1.
+     */
+    public void addEdge(int from, int to) {
+        if (from < 0 || from >= vertices || to < 0 || to >= vertices) {
+            throw new IllegalArgumentException("Edge " + from + " " + to + " has a vertex outside 0 to " + (vertices - 1));
+        }
+        if (from == to) {
+            rejectedLoops.increment();
+            return;
+        }
+        localBuffer.get().add(Math.min(from, to), Math.max(from, to));
+    }
+
+    /**
+     * Builds the graph on the heap.
+     *
+     * @return A Graph object with each edge once, and neighbors in ascending order.
+     */
+    public Graph build() {
+        long[] edges = sortedUniqueEdges();
+        int[] degrees = new int[vertices];
+        for (long edge : edges) {
+            degrees[from(edge)]++;
+            degrees[to(edge)]++;
+        }
+
+        Graph graph = new Graph(vertices);
+        ArrayList<Integer>[] adjacencyList = graph.getAdjacencyList();
+        for (int v = 0; v < vertices; v++) {
+            adjacencyList[v].ensureCapacity(degrees[v]);
+        }
+        for (long edge : edges) {
+            graph.addEdge(from(edge), to(edge));
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the number of vertices of the graph being built.
+     *
+     * @return The number of vertices.
+     */
+    int getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Returns the number of edges added so far, repeated ones included.
+     *
+     * @return The number of edges in the buffers of all threads.
+     */
+    long getEdgesAdded() {
+        long total = 0;
+        for (EdgeBuffer buffer : buffers) {
+            total += buffer.size();
+        }
+        return total;
+    }
+
+    /**
+     * Hands every edge added so far to a visitor, repeated ones included, buffer by buffer.
+     *
+     * @param visitor The visitor of each edge.
+     */
+    void forEachEdge(EdgeVisitor visitor) {
+        for (EdgeBuffer buffer : buffers) {
+            for (long[] chunk : buffer.full) {
+                for (long edge : chunk) {
+                    visitor.visit(from(edge), to(edge));
+                }
+            }
+            for (int i = 0; i < buffer.size; i++) {
+                visitor.visit(from(buffer.edges[i]), to(buffer.edges[i]));
+            }
+        }
+    }
+
+    /**
+     * Records the number of duplicate edges dropped by a build outside this class.
+     *
+     * @param duplicateEdges The number of duplicate edges.
+     */
+    void setDuplicateEdges(long duplicateEdges) {
+        this.duplicateEdges = duplicateEdges;
+    }
+
+    /**
+     * Returns the number of self-loops that were rejected.
+     *
+     * @return The number of rejected self-loops.
+     */
+    public long getRejectedLoops() {
+        return rejectedLoops.sum();
+    }
+
+    /**
+     * Returns the number of duplicate edges dropped by the last build.
+     *
+     * @return The number of duplicate edges.
+     */
+    public long getDuplicateEdges() {
+        return duplicateEdges;
+    }
+
+    /**
+     * Merges the buffers of all threads, sorts the edges and drops the repeated ones.
+     *
+     * @return The distinct edges in ascending order, each packed as (from &lt;&lt; 32) | to with from &lt; to.
+     */
+    private long[] sortedUniqueEdges() {
+        long total = getEdgesAdded();
+        if (total > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Too many edges to build in memory: " + total);
+        }
+        long[] edges = new long[(int) total];
+        int index = 0;
+        for (EdgeBuffer buffer : buffers) {
+            for (long[] chunk : buffer.full) {
+                System.arraycopy(chunk, 0, edges, index, chunk.length);
+                index += chunk.length;
+            }
+            System.arraycopy(buffer.edges, 0, edges, index, buffer.size);
+            index += buffer.size;
+        }
+        Arrays.parallelSort(edges);
+
+        // Count the first edge of each run in parallel blocks, then copy them out at the blocks' offsets
+        int blocks = Math.max(1, Math.min(edges.length / DEDUP_BLOCK, 4 * ForkJoinPool.getCommonPoolParallelism()));
+        int[] blockUnique = new int[blocks + 1];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int count = 0;
+            for (int i = blockStart(edges.length, blocks, b); i < blockStart(edges.length, blocks, b + 1); i++) {
+                if (i == 0 || edges[i] != edges[i - 1]) {
+                    count++;
+                }
+            }
+            blockUnique[b + 1] = count;
+        });
+        for (int b = 0; b < blocks; b++) {
+            blockUnique[b + 1] += blockUnique[b];
+        }
+        int unique = blockUnique[blocks];
+        duplicateEdges = edges.length - unique;
+        if (unique == edges.length) {
+            return edges;
+        }
+        long[] result = new long[unique];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            int next = blockUnique[b];
+            for (int i = blockStart(edges.length, blocks, b); i < blockStart(edges.length, blocks, b + 1); i++) {
+                if (i == 0 || edges[i] != edges[i - 1]) {
+                    result[next++] = edges[i];
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Calculates where a block of an array split into equal blocks starts.
+     *
+     * @param length The length of the array.
+     * @param blocks The number of blocks.
+     * @param block  The block, or the number of blocks for the end of the array.
+     * @return The index of the first element of the block.
+     */
+    private static int blockStart(int length, int blocks, int block) {
+        return (int) ((long) length * block / blocks);
+    }
+
+    /**
+     * Unpacks the smaller vertex of an edge.
+     *
+     * @param edge The packed edge.
+     * @return The smaller vertex.
+     */
+    private static int from(long edge) {
+        return (int) (edge >>> 32);
+    }
+
+    /**
+     * Unpacks the larger vertex of an edge.
+     *
+     * @param edge The packed edge.
+     * @return The larger vertex.
+     */
+    private static int to(long edge) {
+        return (int) edge;
+    }
+
+    /**
+     * EdgeVisitor receives the edges of a builder.
+     */
+    interface EdgeVisitor {
+
+        /**
+         * Visits one edge.
+         *
+         * @param from The smaller vertex.
+         * @param to   The larger vertex.
+         */
+        void visit(int from, int to);
+    }
+
+    /**
+     * EdgeBuffer is a growable list of packed edges owned by one thread. Its last chunk doubles until it
+     * reaches {@link #CHUNK_SIZE}, then full chunks are set aside and a new one is started, so the buffer
+     * can hold more edges than an array while no array ever grows past a chunk.
+     */
+    private static class EdgeBuffer {
+        private static final int CHUNK_SIZE = 1 << 20;
+        private final List<long[]> full = new ArrayList<>();
+        private long[] edges = new long[1024];
+        private int size;
+
+        /**
+         * Appends an edge.
+         *
+         * @param from The smaller vertex.
+         * @param to   The larger vertex.
+         */
+        private void add(int from, int to) {
+            if (size == edges.length) {
+                if (edges.length < CHUNK_SIZE) {
+                    edges = Arrays.copyOf(edges, Math.min(edges.length * 2, CHUNK_SIZE));
+                } else {
+                    full.add(edges);
+                    edges = new long[CHUNK_SIZE];
+                    size = 0;
+                }
+            }
+            edges[size++] = ((long) from << 32) | to;
+        }
+
+        /**
+         * Returns the number of edges in the buffer.
+         *
+         * @return The number of edges in the full chunks and the last one.
+         */
+        private long size() {
+            return (long) full.size() * CHUNK_SIZE + size;
+        }
+    }
+}
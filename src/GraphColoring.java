@@ -1,29 +1,173 @@
 import java.util.*;
 import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
 
 import static java.lang.Thread.sleep;
 
 /**
  * The GraphColoring class is responsible for coloring a given graph using the Brooks algorithm.
+ * It reads the graph through {@link AdjacencyStore}, so a heap {@link Graph}, a {@link GraphSnapshot} and
+ * an {@code OffHeapGraph} are colored alike.
  */
 public class GraphColoring {
-    private Graph graph;
+    private static final long EXACT_BUDGET_MILLIS = 2000;
+    private static final long CLIQUE_NODE_BUDGET = 10000;
+
+    /**
+     * The ways the vertices can be colored greedily when there is a vertex with degree smaller than Δ(G).
+     */
+    public enum GreedyMode {
+        /**
+         * Color one vertex at a time in the order of a spanning tree.
+         */
+        SEQUENTIAL,
+        /**
+         * Color independent sets concurrently with the Jones–Plassmann algorithm, falling back to
+         * {@link #SEQUENTIAL} if more than Δ(G) colors were used.
+         */
+        JONES_PLASSMANN,
+        /**
+         * Color partitions of the vertices concurrently and repair conflicts in rounds, as proposed by
+         * Gebremedhin and Manne, falling back to {@link #SEQUENTIAL} if more than Δ(G) colors were used.
+         */
+        SPECULATIVE
+    }
+
+    private AdjacencyStore graph;
+    private ColoringMetrics metrics = ColoringMetrics.DISABLED;
+    private GreedyMode greedyMode = GreedyMode.SEQUENTIAL;
+    private long seed;
+    private OrderingStrategy orderingStrategy;
+    private long deadline;
+    private boolean hasDeadline;
+    private long reductionNanos;
+    private long cliqueNodeBudget = -1;
+    private int lowerBound;
+    private boolean flightRecorderEvents = true;
+    private final ColorBitmask forbidden = new ColorBitmask(0);
 
     /**
      * Constructor for GraphColoring class.
      *
-     * @param g A Graph object to be colored.
+     * @param g The graph to be colored.
+     */
+    GraphColoring(AdjacencyStore g) {
+        this.graph = g;
+    }
+
+    /**
+     * Constructor for GraphColoring class that records timings and counters of each run.
+     *
+     * @param g       The graph to be colored.
+     * @param metrics The metrics to record into.
      */
-    GraphColoring(Graph g) {
+    GraphColoring(AdjacencyStore g, ColoringMetrics metrics) {
         this.graph = g;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the metrics this object records into.
+     *
+     * @return The metrics, disabled unless given to the constructor.
+     */
+    public ColoringMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the way the vertices are colored greedily. Runs with a GUI are always sequential.
+     *
+     * @param greedyMode The greedy mode to use.
+     * @param seed       The seed of the parallel modes, so runs are reproducible.
+     */
+    public void setGreedyMode(GreedyMode greedyMode, long seed) {
+        this.greedyMode = greedyMode;
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the ordering used for greedy coloring instead of the identity order, and tried before the
+     * spanning tree order when there is a vertex with degree smaller than Δ(G). The spanning tree order
+     * is still used if the given ordering needs more than Δ(G) colors.
+     *
+     * @param orderingStrategy The ordering strategy, or null for the built-in orders.
+     */
+    public void setOrderingStrategy(OrderingStrategy orderingStrategy) {
+        this.orderingStrategy = orderingStrategy;
+    }
+
+    /**
+     * Sets a deadline for the runs. A run that reaches the deadline, or whose thread is interrupted,
+     * stops at the next vertex it colors and throws a {@link CancellationException}.
+     *
+     * @param deadlineNanos The deadline as a {@link System#nanoTime()} value.
+     */
+    public void setDeadline(long deadlineNanos) {
+        this.deadline = deadlineNanos;
+        this.hasDeadline = true;
+    }
+
+    /**
+     * Sets a time budget for reducing the number of colors with Kempe chain interchanges after each run.
+     * The reduction also stops at the deadline, if one is set.
+     *
+     * @param timeout The time budget, or 0 to skip the reduction.
+     * @param unit    The unit of the time budget.
+     */
+    public void setKempeReduction(long timeout, TimeUnit unit) {
+        this.reductionNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Turns the flight recorder events of the runs on or off. They are on by default; turning them off
+     * keeps a short-lived process from loading the flight recorder at all.
+     *
+     * @param flightRecorderEvents Whether to emit the events.
+     */
+    public void setFlightRecorderEvents(boolean flightRecorderEvents) {
+        this.flightRecorderEvents = flightRecorderEvents;
+    }
+
+    /**
+     * Sets a budget for searching a large clique after each run, whose size is a lower bound on the
+     * number of colors. The search is skipped when the colors used already meet a trivial bound, and
+     * the Kempe reduction stops once it reaches the bound. Runs with a GUI always search.
+     *
+     * @param nodeBudget The largest number of branch and bound nodes of the search, 0 for a greedy
+     *                   clique only, or -1 to skip the search.
+     */
+    public void setCliqueBound(long nodeBudget) {
+        this.cliqueNodeBudget = nodeBudget;
+    }
+
+    /**
+     * Returns the lower bound on the number of colors found by the last run. If it equals the number of
+     * colors used, the coloring is optimal.
+     *
+     * @return The lower bound, from the shape of the graph or from a clique.
+     */
+    public int getLowerBound() {
+        return lowerBound;
     }
 
     /**
      * The main method that colors the graph using Brooks algorithm.
      *
-     * @param gui A GraphColoringGUI object used to update the GUI as the graph is being colored.
+     * @param gui A ColoringView object, such as a GraphColoringGUI, used to show the graph as it is being colored,
+     *            or null to run headless, without visual updates and pauses.
+     * @return An array containing the colors of the vertices.
+     * @throws CancellationException If the deadline passed or the thread was interrupted.
      */
-    public void brooksAlgorithm(GraphColoringGUI gui) {
+    public int[] brooksAlgorithm(ColoringView gui) {
+        Object runEvent = flightRecorderEvents ? FlightRecorderEvents.beginRun() : null;
+        metrics.beginRun();
+        String branch;
+        int blockCount = 1;
+        long start = metrics.startPhase();
+        Object event = beginPhaseEvent();
+
         // Get the maximum degree in the graph
         int maxDegree = graph.getMaxDegree();
         int[] colors = new int[graph.getVertices()];
@@ -34,58 +178,125 @@ public class GraphColoring {
             throw new RuntimeException("Brooks algorithm is used to find the chromatic index of a connected graph");
         }
 
+        // Trees, paths, even cycles and other bipartite graphs are colored by the parity of their BFS levels
+        int[] twoColoring = BipartiteColoring.color(graph);
+        boolean isBipartite = twoColoring != null;
+        boolean isClique = !isBipartite && graph.isClique();
+        boolean isOddCycle = !isBipartite && !isClique && maxDegree == 2;
+        endPhase(ColoringMetrics.Phase.CLASSIFICATION, start, event);
+
+        if (isBipartite) {
+            branch = "bipartite";
+            colors = twoColoring;
+            if (metrics.isEnabled()) {
+                metrics.add(ColoringMetrics.Counter.VERTICES_COLORED, countColored(colors));
+            }
+            if (gui != null) {
+                gui.updateColors(colors, "The graph is bipartite, coloring the vertices by the parity of their BFS level");
+            }
+        }
         // Handle clique and odd cycle cases - because Brooks' theorem is not applying to them as well
-        if (graph.isClique() || graph.isOddCycle()) {
-            if (graph.isClique()) {
+        else if (isClique || isOddCycle) {
+            if (isClique) {
+                branch = "clique";
                 colors = colorVerticesGreedyByOrder(maxDegree, gui, "The graph is a clique, ", null, null, false, 0, 0);
             } else {
-                colors = colorVerticesGreedyByOrder(maxDegree, gui, "The graph is an odd cycle, ", null, null, false, 0, 0);
+                branch = "odd-cycle";
+                colors = BipartiteColoring.colorCycle(graph);
+                if (metrics.isEnabled()) {
+                    metrics.add(ColoringMetrics.Counter.VERTICES_COLORED, countColored(colors));
+                }
+                if (gui != null) {
+                    gui.updateColors(colors, "The graph is an odd cycle, alternating two colors and giving the last vertex a third");
+                }
             }
         }
-        // Step 1: Handle cases where maxDegree is 0, 1, or 2
+        // Otherwise Δ(G) >= 3: a connected graph with Δ(G) <= 2 is a path or a cycle, handled above
         else {
-            // If the graph is 2-colorable (path or non-odd cycle)
-            if (maxDegree < 3) {
-                colors = colorVerticesGreedyByOrder(maxDegree, gui, "Degree is smaller than 3, ", null, null, false, 0, 0);
-            } else {
-                // Find an ordering of the vertices
-                SpanningTreeOrdering sto = new SpanningTreeOrdering(graph);
-                int[] ordering = sto.findOrdering();
-
-                // If there is a vertex with max degree smaller than Δ(G)
-                if (ordering != null) {
-                    TreeGUI anotherGui = new TreeGUI(sto.getTree());
+            // Find a vertex with degree smaller than Δ(G) to root the spanning tree in
+            SpanningTreeOrdering sto = new SpanningTreeOrdering(graph);
+
+            // If there is a vertex with max degree smaller than Δ(G)
+            if (sto.getRoot() != -1) {
+                branch = "low-degree-root";
+                colors = colorVerticesInParallel(maxDegree, gui);
+                if (colors == null) {
+                    colors = colorVerticesByStrategy(maxDegree, gui);
+                }
+                if (colors == null) {
+                    // Find an ordering of the vertices
+                    start = metrics.startPhase();
+                    event = beginPhaseEvent();
+                    int[] ordering = sto.findOrdering();
+                    metrics.add(ColoringMetrics.Counter.DFS_VISITS, sto.getVisitCount());
+                    endPhase(ColoringMetrics.Phase.ORDERING, start, event);
+
+                    ColoringView.TreeView anotherGui = gui == null ? null : gui.showTree(sto.getTree(), Arrays.copyOf(ordering, sto.getOrderLength()));
                     colors = colorVerticesGreedyByOrder(maxDegree, gui, "Created a spanning tree rooted in " + sto.getRoot() + " - deg(" + sto.getRoot() + ")<Δ(G): ", ordering, anotherGui, false, 0, 0);
+                }
+            } else {
+                // Color using cut vertex
+                start = metrics.startPhase();
+                event = beginPhaseEvent();
+                CutVertexFinder cvf = new CutVertexFinder(graph);
+                int CutNode = cvf.findCutVertices();
+                metrics.add(ColoringMetrics.Counter.DFS_VISITS, cvf.getVisitCount());
+                endPhase(ColoringMetrics.Phase.CUT_VERTEX, start, event);
+                if (CutNode != -1) {
+                    branch = "cut-vertex";
+                    blockCount = 2;
+                    colors = colorVerticesUsingCutNode(CutNode, gui);
                 } else {
-                    // Color using cut vertex
-                    CutVertexFinder cvf = new CutVertexFinder(graph);
-                    int CutNode = cvf.findCutVertices();
-                    if (CutNode != -1) {
-                        colors = colorVerticesUsingCutNode(CutNode, gui);
-                    } else {
-                        // Color the tree without two non-adjacent vertices, then color them
-                        int[] specVertices = findNonTriangle();
-                        Graph withoutYAndZ = graph.copy();
-                        withoutYAndZ.removeVertex(specVertices[1]);
-                        withoutYAndZ.removeVertex(specVertices[2]);
-                        SpanningTreeOrdering stoLast = new SpanningTreeOrdering(withoutYAndZ, specVertices[0]);
-                        TreeGUI treeWithoutTwoVerticesGui = new TreeGUI(stoLast.getTree(), specVertices[0]);
-                        colors = colorVerticesGreedyByOrder(maxDegree, gui, "Created a spanning tree rooted in " + specVertices[0] + " without vertices " + specVertices[1] + ", and " + specVertices[2], stoLast.findOrdering(), treeWithoutTwoVerticesGui, true, specVertices[1], specVertices[2]);
-
-                        // Sleep for 5 seconds to allow the user to observe the changes
-                        try {
-                            sleep(5000);
-                        } catch (InterruptedException e) {
-                            e.printStackTrace();
-                        }
+                    // Color the tree without two non-adjacent vertices, then color them
+                    branch = "non-triangle";
+                    start = metrics.startPhase();
+                    event = beginPhaseEvent();
+                    int[] specVertices = findNonTriangle();
+                    endPhase(ColoringMetrics.Phase.NON_TRIANGLE, start, event);
+
+                    start = metrics.startPhase();
+                    event = beginPhaseEvent();
+                    GraphSnapshot withoutYAndZ = snapshot().edit().removeVertex(specVertices[1]).removeVertex(specVertices[2]).build();
+                    metrics.add(ColoringMetrics.Counter.GRAPH_COPIES, 1);
+                    SpanningTreeOrdering stoLast = new SpanningTreeOrdering(withoutYAndZ, specVertices[0]);
+                    int[] lastOrdering = stoLast.findOrdering();
+                    metrics.add(ColoringMetrics.Counter.DFS_VISITS, stoLast.getVisitCount());
+                    endPhase(ColoringMetrics.Phase.ORDERING, start, event);
+                    ColoringView.TreeView treeWithoutTwoVerticesGui = gui == null ? null : gui.showTree(stoLast.getTree(), Arrays.copyOf(lastOrdering, stoLast.getOrderLength()));
+                    colors = colorVerticesGreedyByOrder(maxDegree, gui, "Created a spanning tree rooted in " + specVertices[0] + " without vertices " + specVertices[1] + ", and " + specVertices[2], lastOrdering, treeWithoutTwoVerticesGui, true, specVertices[1], specVertices[2]);
+
+                    // Sleep for 5 seconds to allow the user to observe the changes
+                    pause(gui, 5000);
 
-                    }
                 }
             }
         }
-        int chromaticIndex = getMaxChromaticIndex(colors);
-        gui.displayChromaticIndex(chromaticIndex);
-
+        lowerBound = isClique ? graph.getVertices() : isOddCycle ? 3 : graph.getEdgeCount() == 0 ? 1 : 2;
+        if (lowerBound < getMaxChromaticIndex(colors) && (cliqueNodeBudget >= 0 || gui != null)) {
+            lowerBound = findLowerBound(gui == null ? cliqueNodeBudget : CLIQUE_NODE_BUDGET);
+        }
+        if (reductionNanos > 0 && lowerBound < getMaxChromaticIndex(colors)) {
+            colors = reduceColors(colors, gui);
+        }
+        metrics.endRun();
+        if (runEvent != null) {
+            FlightRecorderEvents.endRun(runEvent, branch, graph.getVertices(), graph.getEdgeCount(), maxDegree, blockCount,
+                    getMaxChromaticIndex(colors), lowerBound);
+        }
+        if (gui != null) {
+            int chromaticIndex = getMaxChromaticIndex(colors);
+            gui.displayChromaticIndex(chromaticIndex);
+
+            // The colors used are only an upper bound; find the chromatic number if the graph is small enough
+            if (lowerBound == chromaticIndex) {
+                gui.displayChromaticNumber(lowerBound, chromaticIndex);
+            } else if (graph.getVertices() <= ExactColoring.MAX_VERTICES) {
+                ExactColoring exact = new ExactColoring(graph);
+                exact.solve(colors, EXACT_BUDGET_MILLIS, TimeUnit.MILLISECONDS);
+                gui.displayChromaticNumber(exact.getLowerBound(), exact.getUpperBound());
+            }
+        }
+        return colors;
     }
 
 
@@ -93,15 +304,20 @@ public class GraphColoring {
      * Color the vertices of the graph greedily based on the given ordering.
      *
      * @param maxDegree     The maximum degree in the graph.
-     * @param gui           A GraphColoringGUI object used to update the GUI as the graph is being colored.
+     * @param gui           A ColoringView object used to update the GUI as the graph is being colored.
      * @param added_message A message to display in the GUI during the coloring process.
      * @param ordering      The order in which the vertices should be colored.
-     * @param tgui          A TreeGUI object to update as the tree is being colored, or null if not needed.
+     * @param tgui          A TreeView object to update as the tree is being colored, or null if not needed.
      * @return An array containing the colors of the vertices.
      */
-    private int[] colorVerticesGreedyByOrder(int maxDegree, GraphColoringGUI gui, String added_message, int[] ordering, TreeGUI tgui, boolean two_first, int first, int second) {
+    private int[] colorVerticesGreedyByOrder(int maxDegree, ColoringView gui, String added_message, int[] ordering, ColoringView.TreeView tgui, boolean two_first, int first, int second) {
+        long start = metrics.startPhase();
+        Object event = beginPhaseEvent();
+
         // Check if the ordering array is provided
-        if (ordering == null) {
+        if (ordering == null && orderingStrategy != null) {
+            ordering = orderingStrategy.findOrdering(graph);
+        } else if (ordering == null) {
             // If not provided, initialize it with default ordering (0, 1, 2, ..., n-1)
             ordering = new int[graph.getVertices()];
             for (int i = 0; i < ordering.length; i++) {
@@ -120,30 +336,33 @@ public class GraphColoring {
             if (tgui != null) {
                 tgui.updateColors(colors, "Giving colors to 2 vertices that are not in the tree");
             }
-            gui.updateColors(colors, added_message + "Coloring vertex " + first + " with color " + 0);
-            gui.updateColors(colors, added_message + "Coloring vertex " + second + " with color " + 0);
-            try {
-                sleep(5000);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+            if (gui != null) {
+                gui.updateColors(colors, added_message + "Coloring vertex " + first + " with color " + 0);
+                gui.updateColors(colors, added_message + "Coloring vertex " + second + " with color " + 0);
             }
+            pause(gui, 5000);
         }
 
         // Iterate through the provided ordering of vertices
         for (int j : ordering) {
             if (j == -1) continue; // If there's a removed vertex in the graph, represented by -1 in the ordering
+            checkCancelled();
 
             // Color the vertex according to the greedy coloring approach
             colorVertices(maxDegree, gui, colors, j, added_message + " Coloring Greedy:\n ", tgui);
         }
 
-        // If a TreeGUI instance exists, wait for 1 second and dispose it
+        if (metrics.isEnabled()) {
+            metrics.add(ColoringMetrics.Counter.VERTICES_COLORED, countColored(colors));
+        }
+        endPhase(ColoringMetrics.Phase.GREEDY, start, event);
+
+        // If a tree view exists, wait for 1 second and dispose it
         if (tgui != null) {
             try {
-                sleep(1000);
+                pause(gui, 1000);
+            } finally {
                 tgui.dispose();
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
             }
         }
 
@@ -151,31 +370,129 @@ public class GraphColoring {
         return colors;
     }
 
+    /**
+     * Color the vertices of the graph using the parallel greedy mode, if one is set.
+     *
+     * @param maxDegree The maximum degree in the graph.
+     * @param gui       A ColoringView object, or null if headless.
+     * @return An array containing the colors of the vertices, or null if the sequential
+     * coloring should be used instead.
+     */
+    private int[] colorVerticesInParallel(int maxDegree, ColoringView gui) {
+        if (greedyMode == GreedyMode.SEQUENTIAL || gui != null) {
+            return null;
+        }
+        long start = metrics.startPhase();
+        Object event = beginPhaseEvent();
+        int[] colors;
+        if (greedyMode == GreedyMode.JONES_PLASSMANN) {
+            JonesPlassmannColoring jpc = new JonesPlassmannColoring(graph, seed);
+            colors = jpc.color();
+            metrics.add(ColoringMetrics.Counter.PARALLEL_ROUNDS, jpc.getRounds());
+        } else {
+            SpeculativeColoring sc = new SpeculativeColoring(graph, SpeculativeColoring.DEFAULT_PARTITIONS, seed);
+            colors = sc.color();
+            metrics.add(ColoringMetrics.Counter.PARALLEL_ROUNDS, sc.getRounds());
+            metrics.add(ColoringMetrics.Counter.SPECULATIVE_CONFLICTS, sc.getConflicts());
+        }
+        endPhase(ColoringMetrics.Phase.GREEDY, start, event);
+
+        // Brooks' theorem promises Δ(G) colors, the parallel coloring only Δ(G)+1
+        if (getMaxChromaticIndex(colors) > maxDegree) {
+            return null;
+        }
+        metrics.add(ColoringMetrics.Counter.VERTICES_COLORED, colors.length);
+        return colors;
+    }
+
+    /**
+     * Color the vertices of the graph in the order of the ordering strategy, if one is set,
+     * using at most Δ(G) colors.
+     *
+     * @param maxDegree The maximum degree in the graph.
+     * @param gui       A ColoringView object, or null if headless.
+     * @return An array containing the colors of the vertices, or null if the spanning tree
+     * ordering should be used instead.
+     */
+    private int[] colorVerticesByStrategy(int maxDegree, ColoringView gui) {
+        if (orderingStrategy == null) {
+            return null;
+        }
+        long start = metrics.startPhase();
+        Object event = beginPhaseEvent();
+        int[] ordering = orderingStrategy.findOrdering(graph);
+        endPhase(ColoringMetrics.Phase.ORDERING, start, event);
+
+        // Limiting the palette to Δ(G) colors leaves a vertex uncolored if the ordering needs more. The pass
+        // runs headless, as it is thrown away in that case, and is shown only once it succeeded
+        start = metrics.startPhase();
+        event = beginPhaseEvent();
+        int[] colors = new int[graph.getVertices()];
+        Arrays.fill(colors, -1);
+        for (int v : ordering) {
+            if (v == -1) continue;
+            checkCancelled();
+            colors[v] = leastAvailableColor(maxDegree - 1, colors, v);
+        }
+        endPhase(ColoringMetrics.Phase.GREEDY, start, event);
+        for (int color : colors) {
+            if (color == -1) {
+                return null;
+            }
+        }
+        if (metrics.isEnabled()) {
+            metrics.add(ColoringMetrics.Counter.VERTICES_COLORED, countColored(colors));
+        }
+        if (gui != null) {
+            replayColoring(gui, "Ordering by " + orderingStrategy.getClass().getSimpleName() + ":  Coloring Greedy:\n ", ordering, colors);
+        }
+        return colors;
+    }
+
+    /**
+     * Show a finished coloring in the GUI vertex by vertex, in the order it was found.
+     *
+     * @param gui           A ColoringView object used to update the GUI.
+     * @param added_message A message to display in the GUI with each vertex.
+     * @param ordering      The order in which the vertices were colored; -1 entries are skipped.
+     * @param colors        The colors of the vertices.
+     */
+    private void replayColoring(ColoringView gui, String added_message, int[] ordering, int[] colors) {
+        int[] shown = new int[colors.length];
+        Arrays.fill(shown, -1);
+        for (int v : ordering) {
+            if (v == -1) continue;
+            checkCancelled();
+            shown[v] = colors[v];
+            gui.updateColors(shown, added_message + "Coloring vertex " + v + " with color " + (colors[v] + 1));
+            pause(gui, 5000);
+        }
+    }
+
     /**
      * Color a single vertex using the least available color.
      *
      * @param maxDegree     The maximum degree in the graph.
-     * @param gui           A GraphColoringGUI object used to update the GUI as the graph is being colored.
+     * @param gui           A ColoringView object used to update the GUI as the graph is being colored.
      * @param colors        An array representing the colors of the vertices.
      * @param i             The vertex to color.
      * @param added_message A message to display in the GUI during the coloring process.
-     * @param tgui          A TreeGUI object to update as the tree is being colored, or null if not needed.
+     * @param tgui          A TreeView object to update as the tree is being colored, or null if not needed.
      */
-    private void colorVertices(int maxDegree, GraphColoringGUI gui, int[] colors, int i, String added_message, TreeGUI tgui) {
+    private void colorVertices(int maxDegree, ColoringView gui, int[] colors, int i, String added_message, ColoringView.TreeView tgui) {
         int j = leastAvailableColor(maxDegree, colors, i);
         if (j == -1) {
             return;
         }
         colors[i] = j;
+        if (gui == null) {
+            return;
+        }
         gui.updateColors(colors, added_message + "Coloring vertex " + i + " with color " + (j + 1));
         if (tgui != null) {
             tgui.updateColors(colors, "Found available color " + (j + 1) + " to vertex " + i);
         }
-        try {
-            sleep(5000);
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
+        pause(gui, 5000);
     }
 
 
@@ -188,26 +505,7 @@ public class GraphColoring {
      * @return The least available color for vertex i.
      */
     private int leastAvailableColor(int maxDegree, int[] colors, int i) {
-        int leastAvailableColor = -1;
-        boolean[] availableColors = new boolean[maxDegree + 1];
-        Arrays.fill(availableColors, true);
-
-        if (graph.getAdjacencyList()[i] == null) {
-            return leastAvailableColor;
-        }
-
-        for (int neighbor : graph.getAdjacencyList()[i]) {
-            if (colors[neighbor] != -1) {
-                availableColors[colors[neighbor]] = false;
-            }
-        }
-        for (int j = 0; j <= maxDegree; j++) {
-            if (availableColors[j]) {
-                leastAvailableColor = j;
-                break;
-            }
-        }
-        return leastAvailableColor;
+        return GreedyColoring.leastAvailableColor(graph, colors, i, maxDegree, forbidden);
     }
 
     /**
@@ -217,16 +515,21 @@ public class GraphColoring {
      * @return An array containing the vertices x, y, and z.
      */
     public int[] findNonTriangle() {
+        GraphSnapshot snapshot = null;
         for (int x = 0; x < graph.getVertices(); x++) {
-            List<Integer> neighbors = graph.getAdjacencyList()[x];
-            for (int i = 0; i < neighbors.size(); i++) {
-                int y = neighbors.get(i);
-                for (int j = i + 1; j < neighbors.size(); j++) {
-                    int z = neighbors.get(j);
+            int degree = graph.getDegree(x);
+            for (int i = 0; i < degree; i++) {
+                int y = graph.getNeighbor(x, i);
+                for (int j = i + 1; j < degree; j++) {
+                    int z = graph.getNeighbor(x, j);
                     if (!graph.hasEdge(y, z)) {
-                        Graph withoutYandZ = graph.copy();
-                        withoutYandZ.removeVertex(y);
-                        withoutYandZ.removeVertex(z);
+                        checkCancelled();
+                        // Copy the graph once; each candidate pair only shares its rows
+                        if (snapshot == null) {
+                            snapshot = snapshot();
+                            metrics.add(ColoringMetrics.Counter.GRAPH_COPIES, 1);
+                        }
+                        GraphSnapshot withoutYandZ = snapshot.edit().removeVertex(y).removeVertex(z).build();
                         if (withoutYandZ.isConnected()) {
                             return new int[]{x, y, z};
                         }
@@ -238,25 +541,32 @@ public class GraphColoring {
     }
 
 
+    /**
+     * Take an immutable snapshot of the graph, reusing it if it is one already.
+     *
+     * @return The snapshot.
+     */
+    private GraphSnapshot snapshot() {
+        return graph instanceof GraphSnapshot ? (GraphSnapshot) graph : GraphSnapshot.copyOf(graph);
+    }
+
     /**
      * Color the vertices of the graph using a cut node.
      *
      * @param cutNode The cut node to use for coloring.
-     * @param gui     A GraphColoringGUI object used to update the GUI as the graph is being colored.
+     * @param gui     A ColoringView object used to update the GUI as the graph is being colored.
      * @return An array containing the colors of the vertices.
      */
-    private int[] colorVerticesUsingCutNode(int cutNode, GraphColoringGUI gui) {
+    private int[] colorVerticesUsingCutNode(int cutNode, ColoringView gui) {
         // Initialize the colors array and set all elements to -1 (unassigned)
         int[] colors = new int[graph.getVertices()];
         Arrays.fill(colors, -1);
 
-        // Get the neighbors of the cutNode
-        ArrayList<Integer> neighbors = graph.getAdjacencyList()[cutNode];
-
         // Create two subgraphs, firstSub and secondSub, connected by the cutNode
-        Subgraph firstSub = new Subgraph(graph, cutNode, neighbors.get(0));
+        Subgraph firstSub = new Subgraph(graph, cutNode, graph.getNeighbor(cutNode, 0));
         Subgraph secondSub = null;
-        for (int neighbor : neighbors) {
+        for (int i = 0; i < graph.getDegree(cutNode); i++) {
+            int neighbor = graph.getNeighbor(cutNode, i);
             if (firstSub.containsNode(neighbor)) {
                 secondSub = new Subgraph(graph, cutNode, neighbor);
                 break;
@@ -267,18 +577,26 @@ public class GraphColoring {
         }
 
         // Create spanning trees for the two subgraphs
+        long start = metrics.startPhase();
+        Object event = beginPhaseEvent();
         SpanningTreeOrdering stoFirst = new SpanningTreeOrdering(firstSub.getSubgraph(), cutNode);
         SpanningTreeOrdering stoSecond = new SpanningTreeOrdering(secondSub.getSubgraph(), cutNode);
+        int[] firstOrdering = stoFirst.findOrdering();
+        int[] secondOrdering = stoSecond.findOrdering();
+        metrics.add(ColoringMetrics.Counter.DFS_VISITS, stoFirst.getVisitCount() + stoSecond.getVisitCount());
+        endPhase(ColoringMetrics.Phase.ORDERING, start, event);
 
-        // Display the two trees in separate TreeGUI instances
-        TreeGUI firstTreeGui = new TreeGUI(stoFirst.getTree());
-        TreeGUI secondTreeGui = new TreeGUI(stoSecond.getTree());
+        // Display the two trees in separate tree views
+        ColoringView.TreeView firstTreeGui = gui == null ? null : gui.showTree(stoFirst.getTree(), Arrays.copyOf(firstOrdering, stoFirst.getOrderLength()));
+        ColoringView.TreeView secondTreeGui = gui == null ? null : gui.showTree(stoSecond.getTree(), Arrays.copyOf(secondOrdering, stoSecond.getOrderLength()));
 
         // Color the vertices of the two subgraphs using the greedy algorithm
-        int[] colors1 = colorVerticesGreedyByOrder(firstSub.getSubgraph().getMaxDegree(), gui, "Created first spanning tree rooted in " + stoFirst.getRoot(), stoFirst.findOrdering(), firstTreeGui, false, 0, 0);
-        int[] colors2 = colorVerticesGreedyByOrder(secondSub.getSubgraph().getMaxDegree(), gui, "Created second tree rooted in " + stoSecond.getRoot(), stoSecond.findOrdering(), secondTreeGui, false, 0, 0);
+        int[] colors1 = colorVerticesGreedyByOrder(firstSub.getSubgraph().getMaxDegree(), gui, "Created first spanning tree rooted in " + stoFirst.getRoot(), firstOrdering, firstTreeGui, false, 0, 0);
+        int[] colors2 = colorVerticesGreedyByOrder(secondSub.getSubgraph().getMaxDegree(), gui, "Created second tree rooted in " + stoSecond.getRoot(), secondOrdering, secondTreeGui, false, 0, 0);
 
         // If the cutNode has different colors in the two subgraphs, repaint one of the subgraphs
+        start = metrics.startPhase();
+        event = beginPhaseEvent();
         if (colors2[cutNode] != colors1[cutNode]) {
             int colors1Max = Arrays.stream(colors1).max().getAsInt();
             int color2Max = Arrays.stream(colors2).max().getAsInt();
@@ -297,6 +615,7 @@ public class GraphColoring {
                 colors[i] = colors2[i];
             }
         }
+        endPhase(ColoringMetrics.Phase.RECONCILIATION, start, event);
 
         // Return the final colors array
         return colors;
@@ -310,20 +629,117 @@ public class GraphColoring {
      * @param colorCutInOther The color of the cut node in the other subgraph.
      * @param color2Max       The maximum color in the second subgraph.
      * @param added_message   A message to display in the GUI when repainting.
-     * @param gui             A GraphColoringGUI object used to update the GUI as the graph is being colored.
+     * @param gui             A ColoringView object used to update the GUI as the graph is being colored.
      */
     private void repaint(int[] colors, int cutNode, int colorCutInOther, int color2Max, String
-            added_message, GraphColoringGUI gui) {
+            added_message, ColoringView gui) {
         int moveBy = colorCutInOther - colors[cutNode];
         for (int i = 0; i < colors.length; i++) {
             if (colors[i] == -1) continue;
             int j = (colors[i] + moveBy) % color2Max;
-            gui.updateColors(colors, added_message + "Coloring vertex " + i + " with color " + j + 1);
-            try {
-                sleep(2500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+            if (gui != null) {
+                gui.updateColors(colors, added_message + "Coloring vertex " + i + " with color " + j + 1);
             }
+            pause(gui, 2500);
+        }
+    }
+
+    /**
+     * Reduce the number of colors with Kempe chain interchanges, within the time budget and the deadline.
+     *
+     * @param colors An array representing the colors of the vertices.
+     * @param gui    A ColoringView object used to show the reduced coloring, or null if headless.
+     * @return An array containing the reduced colors of the vertices.
+     */
+    private int[] reduceColors(int[] colors, ColoringView gui) {
+        long budget = reductionNanos;
+        if (hasDeadline) {
+            budget = Math.min(budget, deadline - System.nanoTime());
+        }
+        if (budget <= 0) {
+            return colors;
+        }
+        long start = metrics.startPhase();
+        Object event = beginPhaseEvent();
+        KempeReduction reduction = new KempeReduction(graph);
+        reduction.setLowerBound(lowerBound);
+        int[] reduced = reduction.reduce(colors, budget, TimeUnit.NANOSECONDS);
+        metrics.add(ColoringMetrics.Counter.KEMPE_INTERCHANGES, reduction.getInterchanges());
+        endPhase(ColoringMetrics.Phase.REDUCTION, start, event);
+        if (gui != null && getMaxChromaticIndex(reduced) < getMaxChromaticIndex(colors)) {
+            gui.updateColors(reduced, "Reduced to " + getMaxChromaticIndex(reduced) + " colors with Kempe chain interchanges");
+        }
+        return reduced;
+    }
+
+    /**
+     * Find a large clique, whose size is a lower bound on the number of colors.
+     *
+     * @param nodeBudget The largest number of branch and bound nodes of the search.
+     * @return The size of the clique.
+     */
+    private int findLowerBound(long nodeBudget) {
+        long start = metrics.startPhase();
+        Object event = beginPhaseEvent();
+        int size = new CliqueFinder(graph).find(nodeBudget).length;
+        endPhase(ColoringMetrics.Phase.LOWER_BOUND, start, event);
+        return size;
+    }
+
+    /**
+     * Begin a flight recorder event for a phase of the run.
+     *
+     * @return The begun event, or null if flight recorder events are off.
+     */
+    private Object beginPhaseEvent() {
+        return flightRecorderEvents ? FlightRecorderEvents.beginPhase() : null;
+    }
+
+    /**
+     * End a phase of the run, recording it in the metrics and committing its flight recorder event.
+     *
+     * @param phase The phase that ended.
+     * @param start The timestamp returned by {@link ColoringMetrics#startPhase()}.
+     * @param event The event returned by {@link #beginPhaseEvent()}.
+     */
+    private void endPhase(ColoringMetrics.Phase phase, long start, Object event) {
+        metrics.endPhase(phase, start);
+        if (event != null) {
+            FlightRecorderEvents.endPhase(event, phase.name(), graph.getVertices());
+        }
+    }
+
+    /**
+     * Pause so the user can observe the changes. Headless runs do not pause.
+     *
+     * @param gui    The ColoringView object of the run, or null if headless.
+     * @param millis The time to pause in milliseconds.
+     * @throws CancellationException If the thread was interrupted while pausing.
+     */
+    private void pause(ColoringView gui, long millis) {
+        if (gui == null) {
+            return;
+        }
+        try {
+            sleep(millis);
+        } catch (InterruptedException e) {
+            // Keep the interrupt visible to the caller, and stop the run instead of carrying on
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Coloring was interrupted");
+        }
+    }
+
+    /**
+     * Stop the run if the deadline passed or the thread was interrupted.
+     *
+     * @throws CancellationException If the run must stop.
+     */
+    private void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Coloring was interrupted");
+        }
+        if (hasDeadline && System.nanoTime() - deadline > 0) {
+            throw new CancellationException("Coloring missed its deadline");
         }
     }
 
@@ -342,6 +758,20 @@ public class GraphColoring {
         return maxColor + 1;
     }
 
+    /**
+     * Count the colored vertices.
+     *
+     * @param colors An array representing the colors of the vertices.
+     * @return The number of vertices with a color.
+     */
+    private static int countColored(int[] colors) {
+        int colored = 0;
+        for (int color : colors) {
+            if (color != -1) colored++;
+        }
+        return colored;
+    }
+
 
 }
 
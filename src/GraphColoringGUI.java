@@ -6,7 +6,7 @@ import java.awt.*;
  * The GraphColoringGUI class is responsible for displaying the graph coloring process and results.
  * It extends JFrame and provides a visual interface for graph coloring operations.
  */
-public class GraphColoringGUI extends JFrame {
+public class GraphColoringGUI extends JFrame implements ColoringView {
     private GraphPanel graphPanel;
 
     /**
@@ -39,6 +39,7 @@ public class GraphColoringGUI extends JFrame {
      * @param colors        An array of integers representing the colors assigned to each vertex.
      * @param statusMessage A string representing the status message to be displayed.
      */
+    @Override
     public void updateColors(int[] colors, String statusMessage) {
         graphPanel.setColors(colors);
         graphPanel.setStatus(statusMessage); // Update the status message
@@ -49,7 +50,31 @@ public class GraphColoringGUI extends JFrame {
      *
      * @param chromaticIndex An integer representing the chromatic index of the graph.
      */
+    @Override
     public void displayChromaticIndex(int chromaticIndex) {
         graphPanel.displayChromaticIndex(chromaticIndex);
     }
-}
+
+    /**
+     * Displays the chromatic number of the graph in the GUI.
+     *
+     * @param lowerBound The proven lower bound on the chromatic number.
+     * @param upperBound The number of colors of the best coloring found.
+     */
+    @Override
+    public void displayChromaticNumber(int lowerBound, int upperBound) {
+        graphPanel.displayChromaticNumber(lowerBound, upperBound);
+    }
+
+    /**
+     * Opens a TreeGUI window showing a spanning tree of the graph.
+     *
+     * @param tree     The spanning tree as a Graph object.
+     * @param ordering The painting order of the vertices; -1 entries are skipped.
+     * @return The TreeGUI window.
+     */
+    @Override
+    public TreeView showTree(Graph tree, int[] ordering) {
+        return new TreeGUI(tree, ordering);
+    }
+}
\ No newline at end of file
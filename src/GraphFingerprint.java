@@ -0,0 +1,114 @@
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * GraphFingerprint is a 128-bit structural hash of a graph. Two graphs with the same vertices and
+ * the same edges get the same fingerprint, whatever order their edges were added in.
+ * <p>
+ * Every adjacency row is sorted and hashed on its own, in parallel, and the row hashes are combined
+ * by addition, so the result does not depend on how the rows were split between threads.
+ */
+public final class GraphFingerprint {
+    private static final long SEED_HIGH = 0x9E3779B97F4A7C15L;
+    private static final long SEED_LOW = 0xC2B2AE3D27D4EB4FL;
+
+    private final long high;
+    private final long low;
+    private final int vertices;
+
+    /**
+     * Constructs a new GraphFingerprint object.
+     *
+     * @param high     The high 64 bits of the hash.
+     * @param low      The low 64 bits of the hash.
+     * @param vertices The number of vertices of the graph.
+     */
+    private GraphFingerprint(long high, long low, int vertices) {
+        this.high = high;
+        this.low = low;
+        this.vertices = vertices;
+    }
+
+    /**
+     * Computes the fingerprint of a graph.
+     *
+     * @param graph The graph.
+     * @return The fingerprint of the graph.
+     */
+    public static GraphFingerprint of(AdjacencyStore graph) {
+        int n = graph.getVertices();
+        long[] sums = IntStream.range(0, n).parallel()
+                .mapToObj(v -> hashRow(graph, v))
+                .reduce(new long[2], (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]});
+        return new GraphFingerprint(mix(sums[0] ^ n), mix(sums[1] ^ n), n);
+    }
+
+    /**
+     * Returns the number of vertices of the fingerprinted graph.
+     *
+     * @return The number of vertices.
+     */
+    public int getVertices() {
+        return vertices;
+    }
+
+    /**
+     * Hashes one sorted adjacency row with both seeds.
+     *
+     * @param graph The graph.
+     * @param v     The vertex of the row.
+     * @return The two hashes of the row.
+     */
+    private static long[] hashRow(AdjacencyStore graph, int v) {
+        long high = mix(SEED_HIGH + v);
+        long low = mix(SEED_LOW - v);
+        if (graph.isRemoved(v)) {
+            return new long[]{mix(high ^ SEED_LOW), mix(low ^ SEED_HIGH)};
+        }
+        int[] row = new int[graph.getDegree(v)];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = graph.getNeighbor(v, i);
+        }
+        Arrays.sort(row);
+        for (int neighbor : row) {
+            high = mix(high ^ neighbor);
+            low = mix(low + neighbor);
+        }
+        return new long[]{high, low};
+    }
+
+    /**
+     * Mixes the bits of a value (the SplitMix64 finalizer).
+     *
+     * @param z The value.
+     * @return The mixed value.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GraphFingerprint)) return false;
+        GraphFingerprint other = (GraphFingerprint) o;
+        return high == other.high && low == other.low && vertices == other.vertices;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(high ^ low);
+    }
+
+    /**
+     * Returns the fingerprint as 32 hexadecimal digits.
+     *
+     * @return The hexadecimal fingerprint.
+     */
+    @Override
+    public String toString() {
+        return String.format("%016x%016x", high, low);
+    }
+}
@@ -214,8 +214,8 @@ public class GraphInputGUI extends JFrame {
                         throw new NumberFormatException();
                     }
 
-                    // Create the graph
-                    Graph graph = new Graph(vertices);
+                    // Create the graph, dropping repeated edges and self-loops
+                    GraphBuilder builder = new GraphBuilder(vertices);
 
                     // Read the edges input and add edges to the graph
                     String[] inputEdges = edgesInputArea.getText().split("\n");
@@ -223,8 +223,9 @@ public class GraphInputGUI extends JFrame {
                         String[] verticesPair = inputEdge.split(" ");
                         int v1 = Integer.parseInt(verticesPair[0].trim());
                         int v2 = Integer.parseInt(verticesPair[1].trim());
-                        graph.addEdge(v1, v2);
+                        builder.addEdge(v1, v2);
                     }
+                    Graph graph = builder.build();
 
                     // Set input_graph and finished flag
                     setInputGraph(graph);
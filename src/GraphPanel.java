@@ -127,4 +127,19 @@ class GraphPanel extends JPanel {
         statusLabel.setText("Computation ended");
         repaint();
     }
+
+    /**
+     * Displays the chromatic number of the graph next to the chromatic index, or the range it lies in
+     * if it was not found exactly.
+     *
+     * @param lowerBound The proven lower bound on the chromatic number.
+     * @param upperBound The number of colors of the best coloring found.
+     */
+    public void displayChromaticNumber(int lowerBound, int upperBound) {
+        String message = chromaticIndexLabel.getText() + ", chromatic number: "
+                + (lowerBound == upperBound ? Integer.toString(upperBound) : lowerBound + ".." + upperBound);
+        chromaticIndexLabel.setText(message);
+        chromaticIndexLabel.setLocation((getWidth() - chromaticIndexLabel.getPreferredSize().width) / 2, (getHeight() - chromaticIndexLabel.getPreferredSize().height) / 2);
+        repaint();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,253 @@
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * GraphSnapshot is an immutable graph that any number of threads can read at once without locking.
+ * Each row is a primitive array that is never written after the snapshot is built, and every field is
+ * final, so a snapshot can be handed to other threads like any immutable object.
+ * <p>
+ * Changes go through an {@link Editor}, which builds a new snapshot and leaves this one as it is. The
+ * new snapshot shares every row that was not changed: only the rows of the vertices an edge is added to
+ * are copied, and removing a vertex copies no row at all. As in {@link Graph}, a removed vertex keeps its
+ * place in the rows of its neighbors, so readers skip it with {@link #isRemoved(int)}.
+ */
+public final class GraphSnapshot implements AdjacencyStore {
+    private final int[][] rows;
+    private final int maxDegree;
+    private final long edgeCount;
+
+    /**
+     * Constructs a new GraphSnapshot object over rows that are no longer written.
+     *
+     * @param rows      The neighbors of each vertex, null for removed vertices.
+     * @param maxDegree The largest row length.
+     * @param edgeCount The number of edges between vertices that were not removed.
+     */
+    private GraphSnapshot(int[][] rows, int maxDegree, long edgeCount) {
+        this.rows = rows;
+        this.maxDegree = maxDegree;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * Copies a graph into a snapshot. Removed vertices stay removed in the snapshot.
+     *
+     * @param graph The graph to copy.
+     * @return The snapshot.
+     */
+    public static GraphSnapshot copyOf(AdjacencyStore graph) {
+        int[][] rows = new int[graph.getVertices()][];
+        int maxDegree = 0;
+        long liveDegreeSum = 0;
+        for (int v = 0; v < rows.length; v++) {
+            if (graph.isRemoved(v)) continue;
+            rows[v] = new int[graph.getDegree(v)];
+            for (int i = 0; i < rows[v].length; i++) {
+                rows[v][i] = graph.getNeighbor(v, i);
+                if (!graph.isRemoved(rows[v][i])) {
+                    liveDegreeSum++;
+                }
+            }
+            maxDegree = Math.max(maxDegree, rows[v].length);
+        }
+        return new GraphSnapshot(rows, maxDegree, liveDegreeSum / 2);
+    }
+
+    /**
+     * Starts a set of changes to this snapshot.
+     *
+     * @return An editor whose {@link Editor#build()} returns the changed snapshot.
+     */
+    public Editor edit() {
+        return new Editor(rows, maxDegree, edgeCount);
+    }
+
+    /**
+     * Copies this snapshot into a new mutable Graph object, for the code that needs one.
+     *
+     * @return The graph, with the same removed vertices.
+     */
+    public Graph toGraph() {
+        Graph graph = new Graph(rows.length);
+        for (int v = 0; v < rows.length; v++) {
+            if (rows[v] == null) {
+                graph.removeVertex(v);
+                continue;
+            }
+            graph.getAdjacencyList()[v].ensureCapacity(rows[v].length);
+            for (int u : rows[v]) {
+                graph.getAdjacencyList()[v].add(u);
+            }
+        }
+        return graph;
+    }
+
+    @Override
+    public int getVertices() {
+        return rows.length;
+    }
+
+    @Override
+    public int getDegree(int v) {
+        return rows[v] == null ? 0 : rows[v].length;
+    }
+
+    @Override
+    public int getNeighbor(int v, int index) {
+        return rows[v][index];
+    }
+
+    @Override
+    public boolean isRemoved(int v) {
+        return rows[v] == null;
+    }
+
+    @Override
+    public int getMaxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * Counts the edges of the graph, ignoring removed vertices and the edges to them.
+     *
+     * @return The number of edges between vertices that were not removed.
+     */
+    @Override
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Editor collects changes to a snapshot with copy-on-write: a row is copied the first time it changes,
+     * and all other rows stay shared with the snapshot the editor started from. An editor belongs to one
+     * thread; the snapshots it builds can be shared.
+     */
+    public static final class Editor {
+        private final int[][] rows;
+        private final int[] sizes;
+        private final BitSet copied = new BitSet();
+        private int maxDegree;
+        private boolean maxDegreeKnown = true;
+        private long edgeCount;
+
+        /**
+         * Constructs a new Editor object starting from the rows of a snapshot.
+         *
+         * @param rows      The rows of the snapshot, which are not written.
+         * @param maxDegree The largest row length of the snapshot.
+         * @param edgeCount The number of edges of the snapshot between vertices that were not removed.
+         */
+        private Editor(int[][] rows, int maxDegree, long edgeCount) {
+            this.rows = rows.clone();
+            this.sizes = new int[rows.length];
+            this.maxDegree = maxDegree;
+            this.edgeCount = edgeCount;
+        }
+
+        /**
+         * Adds an edge between two vertices. The edge must not exist yet.
+         *
+         * @param from The starting vertex.
+         * @param to   The ending vertex.
+         * @return This editor.
+         * @throws IllegalArgumentException If a vertex is out of range or removed, or the edge is a self-loop.
+         */
+        public Editor addEdge(int from, int to) {
+            checkVertex(from);
+            checkVertex(to);
+            if (from == to) {
+                throw new IllegalArgumentException("Self-loop at vertex " + from);
+            }
+            append(from, to);
+            append(to, from);
+            edgeCount++;
+            return this;
+        }
+
+        /**
+         * Removes a vertex. Its neighbors keep it in their rows, marked as removed.
+         *
+         * @param v The vertex to remove.
+         * @return This editor.
+         * @throws IllegalArgumentException If the vertex is out of range.
+         */
+        public Editor removeVertex(int v) {
+            if (v < 0 || v >= rows.length) {
+                throw new IllegalArgumentException("Vertex " + v + " is outside 0 to " + (rows.length - 1));
+            }
+            if (rows[v] == null) {
+                return this;
+            }
+            int degree = copied.get(v) ? sizes[v] : rows[v].length;
+            // The edges to the neighbors that are still there go away with the vertex
+            for (int i = 0; i < degree; i++) {
+                if (rows[rows[v][i]] != null) {
+                    edgeCount--;
+                }
+            }
+            if (degree == maxDegree) {
+                maxDegreeKnown = false;
+            }
+            rows[v] = null;
+            copied.clear(v);
+            return this;
+        }
+
+        /**
+         * Builds the snapshot with the changes so far. The editor can keep going afterwards; the rows it
+         * changes next are copied again, so the built snapshot never changes.
+         *
+         * @return The new snapshot.
+         */
+        public GraphSnapshot build() {
+            for (int v = copied.nextSetBit(0); v >= 0; v = copied.nextSetBit(v + 1)) {
+                if (rows[v].length != sizes[v]) {
+                    rows[v] = Arrays.copyOf(rows[v], sizes[v]);
+                }
+            }
+            // The copied rows now belong to the snapshot, so the next change to them copies them again
+            copied.clear();
+            if (!maxDegreeKnown) {
+                maxDegree = 0;
+                for (int[] row : rows) {
+                    if (row != null) maxDegree = Math.max(maxDegree, row.length);
+                }
+                maxDegreeKnown = true;
+            }
+            return new GraphSnapshot(rows.clone(), maxDegree, edgeCount);
+        }
+
+        /**
+         * Appends a neighbor to the row of a vertex, copying the row first if it is still shared.
+         *
+         * @param v        The vertex.
+         * @param neighbor The neighbor.
+         */
+        private void append(int v, int neighbor) {
+            if (!copied.get(v)) {
+                sizes[v] = rows[v].length;
+                rows[v] = Arrays.copyOf(rows[v], Math.max(4, sizes[v] + (sizes[v] >> 1) + 1));
+                copied.set(v);
+            } else if (sizes[v] == rows[v].length) {
+                rows[v] = Arrays.copyOf(rows[v], sizes[v] + (sizes[v] >> 1) + 1);
+            }
+            rows[v][sizes[v]++] = neighbor;
+            maxDegree = Math.max(maxDegree, sizes[v]);
+        }
+
+        /**
+         * Checks that a vertex is in range and not removed.
+         *
+         * @param v The vertex.
+         * @throws IllegalArgumentException If the vertex is out of range or removed.
+         */
+        private void checkVertex(int v) {
+            if (v < 0 || v >= rows.length) {
+                throw new IllegalArgumentException("Vertex " + v + " is outside 0 to " + (rows.length - 1));
+            }
+            if (rows[v] == null) {
+                throw new IllegalArgumentException("Vertex " + v + " was removed");
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.Arrays;
+
+/**
+ * GreedyColoring colors the vertices of any {@link AdjacencyStore} greedily in a given order,
+ * giving each vertex the least color not used by its neighbors.
+ */
+public class GreedyColoring {
+
+    /**
+     * Colors the vertices of a graph greedily in the given order.
+     *
+     * @param graph     The graph to color.
+     * @param ordering  The order in which the vertices should be colored; -1 entries are skipped.
+     * @param maxDegree The largest color that may be used.
+     * @return An array containing the colors of the vertices, -1 for vertices that could not be colored.
+     */
+    public static int[] color(AdjacencyStore graph, int[] ordering, int maxDegree) {
+        int[] colors = new int[graph.getVertices()];
+        Arrays.fill(colors, -1);
+        ScratchArena arena = ScratchArena.current();
+        int mark = arena.mark();
+        try {
+            ColorBitmask forbidden = arena.colorBitmask(maxDegree);
+            for (int v : ordering) {
+                if (v == -1) continue;
+                colors[v] = leastAvailableColor(graph, colors, v, maxDegree, forbidden);
+            }
+        } finally {
+            arena.release(mark);
+        }
+        return colors;
+    }
+
+    /**
+     * Find the least available color for vertex v.
+     *
+     * @param graph     The graph being colored.
+     * @param colors    An array representing the colors of the vertices.
+     * @param v         The vertex to find the least available color for.
+     * @param maxDegree The largest color that may be used.
+     * @return The least available color for vertex v, or -1 if the vertex was removed or all colors are used.
+     */
+    public static int leastAvailableColor(AdjacencyStore graph, int[] colors, int v, int maxDegree) {
+        ScratchArena arena = ScratchArena.current();
+        int mark = arena.mark();
+        try {
+            return leastAvailableColor(graph, colors, v, maxDegree, arena.colorBitmask(maxDegree));
+        } finally {
+            arena.release(mark);
+        }
+    }
+
+    /**
+     * Find the least available color for vertex v, reusing the given forbidden-color set.
+     *
+     * @param graph     The graph being colored.
+     * @param colors    An array representing the colors of the vertices.
+     * @param v         The vertex to find the least available color for.
+     * @param maxDegree The largest color that may be used.
+     * @param forbidden The set to collect the colors of the neighbors in; its content is replaced.
+     * @return The least available color for vertex v, or -1 if the vertex was removed or all colors are used.
+     */
+    public static int leastAvailableColor(AdjacencyStore graph, int[] colors, int v, int maxDegree, ColorBitmask forbidden) {
+        if (graph.isRemoved(v)) {
+            return -1;
+        }
+        forbidden.reset(maxDegree);
+        for (int i = 0; i < graph.getDegree(v); i++) {
+            forbidden.forbid(colors[graph.getNeighbor(v, i)]);
+        }
+        return forbidden.firstFree();
+    }
+}
@@ -0,0 +1,126 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * JonesPlassmannColoring colors a graph in parallel using the Jones–Plassmann algorithm.
+ * Every vertex gets a random priority; in each round, the uncolored vertices whose priority
+ * is higher than that of all their uncolored neighbors form an independent set, and are
+ * colored concurrently with their least available color.
+ */
+public class JonesPlassmannColoring {
+    private AdjacencyStore graph;
+    private int[] priorities;
+    private int rounds;
+
+    /**
+     * Constructs a new JonesPlassmannColoring object for the given graph.
+     *
+     * @param graph The graph to color.
+     * @param seed  The seed of the random priorities, so runs are reproducible.
+     */
+    public JonesPlassmannColoring(AdjacencyStore graph, long seed) {
+        this.graph = graph;
+        this.priorities = randomPriorities(graph.getVertices(), seed);
+    }
+
+    /**
+     * Colors the graph. Removed vertices stay uncolored.
+     *
+     * @return An array containing the colors of the vertices, -1 for removed vertices.
+     */
+    public int[] color() {
+        int[] colors = new int[graph.getVertices()];
+        Arrays.fill(colors, -1);
+        rounds = 0;
+
+        int[] remaining = IntStream.range(0, colors.length)
+                .filter(v -> !graph.isRemoved(v))
+                .toArray();
+
+        while (remaining.length > 0) {
+            rounds++;
+            // Select the local maxima first, so no vertex sees a neighbor colored in the same round
+            int[] selected = IntStream.of(remaining).parallel()
+                    .filter(v -> isLocalMaximum(v, colors))
+                    .toArray();
+            IntStream.of(selected).parallel()
+                    .forEach(v -> colors[v] = leastAvailableColor(v, colors));
+            remaining = IntStream.of(remaining).parallel()
+                    .filter(v -> colors[v] == -1)
+                    .toArray();
+        }
+        return colors;
+    }
+
+    /**
+     * Returns the number of rounds the last coloring took.
+     *
+     * @return The number of rounds.
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Checks if a vertex has a higher priority than all of its uncolored neighbors.
+     *
+     * @param v             The vertex to check.
+     * @param colors An array representing the colors of the vertices.
+     * @return True if the vertex can be colored in this round, otherwise false.
+     */
+    private boolean isLocalMaximum(int v, int[] colors) {
+        for (int i = 0; i < graph.getDegree(v); i++) {
+            int neighbor = graph.getNeighbor(v, i);
+            if (colors[neighbor] == -1 && !graph.isRemoved(neighbor) && priorities[neighbor] > priorities[v]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Find the least color not used by any colored neighbor of a vertex.
+     *
+     * @param v      The vertex to find the least available color for.
+     * @param colors An array representing the colors of the vertices.
+     * @return The least available color, at most the degree of the vertex.
+     */
+    private int leastAvailableColor(int v, int[] colors) {
+        // The vertices of a round run on pool threads, so each borrows the set of its thread's arena
+        ScratchArena arena = ScratchArena.current();
+        int mark = arena.mark();
+        try {
+            int degree = graph.getDegree(v);
+            ColorBitmask forbidden = arena.colorBitmask(degree);
+            for (int i = 0; i < degree; i++) {
+                forbidden.forbid(colors[graph.getNeighbor(v, i)]);
+            }
+            return forbidden.firstFree();
+        } finally {
+            arena.release(mark);
+        }
+    }
+
+    /**
+     * Creates distinct random priorities by shuffling 0..n-1.
+     *
+     * @param n    The number of vertices.
+     * @param seed The seed of the shuffle.
+     * @return An array of priorities, one per vertex.
+     */
+    private static int[] randomPriorities(int n, long seed) {
+        int[] priorities = new int[n];
+        for (int i = 0; i < n; i++) {
+            priorities[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = priorities[i];
+            priorities[i] = priorities[j];
+            priorities[j] = tmp;
+        }
+        return priorities;
+    }
+}
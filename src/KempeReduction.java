@@ -0,0 +1,258 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * KempeReduction lowers the number of colors of a proper coloring by emptying whole color classes.
+ * The classes are tried from the smallest up. A vertex of the class is moved to a color none of its
+ * neighbors use if there is one; otherwise, for a pair of colors a and b, the a/b Kempe chains through
+ * its a-colored neighbors are interchanged, provided they reach none of its b-colored neighbors, which
+ * frees color a for the vertex. Once a class is empty, the highest color takes its place.
+ * <p>
+ * Every step keeps the coloring proper, so the reduction can stop at any time. The chains are searched
+ * with breadth-first searches over primitive arrays that are reused between searches; visited vertices
+ * are marked with a generation number instead of clearing the arrays.
+ */
+public class KempeReduction {
+    // The number of vertices a chain search visits between checks of the deadline
+    private static final int CHECK_INTERVAL = 4096;
+
+    private final AdjacencyStore graph;
+    private final int[] queue;
+    private final int[] visited;
+    private final int[] neighborMark;
+    private int[] colorMark = new int[0];
+    private int generation;
+    private long interchanges;
+    private int lowerBound = 1;
+
+    /**
+     * Constructs a new KempeReduction object for the given graph.
+     *
+     * @param graph The graph whose colorings are reduced.
+     */
+    public KempeReduction(AdjacencyStore graph) {
+        this.graph = graph;
+        this.queue = new int[graph.getVertices()];
+        this.visited = new int[graph.getVertices()];
+        this.neighborMark = new int[graph.getVertices()];
+    }
+
+    /**
+     * Sets a lower bound on the number of colors, such as the size of a clique. The reduction stops as
+     * soon as it reaches the bound.
+     *
+     * @param lowerBound The lower bound.
+     */
+    public void setLowerBound(int lowerBound) {
+        this.lowerBound = Math.max(1, lowerBound);
+    }
+
+    /**
+     * Reduces the number of colors of a coloring until no class can be emptied, the lower bound is
+     * reached or the time budget runs out. If the thread is interrupted, the reduction stops and the interrupt stays set.
+     *
+     * @param colors  A proper coloring of the graph, -1 for removed vertices. It is not modified.
+     * @param timeout The time budget.
+     * @param unit    The unit of the time budget.
+     * @return A proper coloring with at most as many colors.
+     */
+    public int[] reduce(int[] colors, long timeout, TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        int[] result = colors.clone();
+        int k = countColors(result);
+        if (colorMark.length < k) {
+            colorMark = new int[k];
+        }
+
+        boolean reduced = true;
+        while (reduced && k > lowerBound && !isCancelled(deadline)) {
+            reduced = false;
+            int[] sizes = new int[k];
+            for (int color : result) {
+                if (color != -1) sizes[color]++;
+            }
+            for (int c : bySize(sizes)) {
+                if (!emptyClass(result, c, k, deadline)) {
+                    continue;
+                }
+                if (c != k - 1) {
+                    for (int v = 0; v < result.length; v++) {
+                        if (result[v] == k - 1) result[v] = c;
+                    }
+                }
+                k--;
+                reduced = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of Kempe chain interchanges made so far.
+     *
+     * @return The number of interchanges.
+     */
+    public long getInterchanges() {
+        return interchanges;
+    }
+
+    /**
+     * Tries to move every vertex of a color class to another color.
+     *
+     * @param colors   The coloring, updated in place.
+     * @param c        The color class to empty.
+     * @param k        The number of colors.
+     * @param deadline The deadline as a {@link System#nanoTime()} value.
+     * @return True if the class is empty, otherwise false.
+     */
+    private boolean emptyClass(int[] colors, int c, int k, long deadline) {
+        boolean empty = true;
+        for (int v = 0; v < colors.length; v++) {
+            if (colors[v] != c) continue;
+            if (isCancelled(deadline)) {
+                return false;
+            }
+            if (!moveVertex(colors, v, c, k, deadline)) {
+                // Keep moving the rest: the coloring stays proper and the class gets smaller for the next try
+                empty = false;
+            }
+        }
+        return empty;
+    }
+
+    /**
+     * Tries to give a vertex a color other than its own, directly or through a Kempe chain interchange.
+     * The deadline is checked before each pair of colors, as one vertex may try up to k² chain searches.
+     *
+     * @param colors   The coloring, updated in place.
+     * @param v        The vertex.
+     * @param c        The color of the vertex.
+     * @param k        The number of colors.
+     * @param deadline The deadline as a {@link System#nanoTime()} value.
+     * @return True if the vertex was recolored, otherwise false, also if the reduction was cancelled.
+     */
+    private boolean moveVertex(int[] colors, int v, int c, int k, long deadline) {
+        int mark = ++generation;
+        for (int i = 0; i < graph.getDegree(v); i++) {
+            int neighbor = graph.getNeighbor(v, i);
+            neighborMark[neighbor] = mark;
+            if (colors[neighbor] != -1) colorMark[colors[neighbor]] = mark;
+        }
+        for (int a = 0; a < k; a++) {
+            if (a != c && colorMark[a] != mark) {
+                colors[v] = a;
+                return true;
+            }
+        }
+        for (int a = 0; a < k; a++) {
+            if (a == c) continue;
+            for (int b = 0; b < k; b++) {
+                if (b == c || b == a) continue;
+                if (isCancelled(deadline)) {
+                    return false;
+                }
+                if (interchange(colors, v, a, b, mark, deadline)) {
+                    colors[v] = a;
+                    interchanges++;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Interchanges colors a and b on the Kempe chains through the a-colored neighbors of a vertex,
+     * unless one of the chains reaches a b-colored neighbor, which would then take color a.
+     *
+     * @param colors   The coloring, updated in place if the interchange is made.
+     * @param v        The vertex.
+     * @param a        The color to free for the vertex.
+     * @param b        The other color of the chains.
+     * @param mark     The generation marking the neighbors of the vertex in {@code neighborMark}.
+     * @param deadline The deadline as a {@link System#nanoTime()} value.
+     * @return True if the chains were interchanged, otherwise false, also if the reduction was cancelled
+     * during the search, which leaves the coloring as it was.
+     */
+    private boolean interchange(int[] colors, int v, int a, int b, int mark, long deadline) {
+        int search = ++generation;
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < graph.getDegree(v); i++) {
+            int neighbor = graph.getNeighbor(v, i);
+            if (colors[neighbor] == a && visited[neighbor] != search) {
+                visited[neighbor] = search;
+                queue[tail++] = neighbor;
+            }
+        }
+        while (head < tail) {
+            if (head % CHECK_INTERVAL == 0 && head > 0 && isCancelled(deadline)) {
+                return false;
+            }
+            int u = queue[head++];
+            for (int i = 0; i < graph.getDegree(u); i++) {
+                int w = graph.getNeighbor(u, i);
+                int color = colors[w];
+                if ((color != a && color != b) || visited[w] == search) continue;
+                if (color == b && neighborMark[w] == mark) {
+                    return false;
+                }
+                visited[w] = search;
+                queue[tail++] = w;
+            }
+        }
+        for (int i = 0; i < tail; i++) {
+            int u = queue[i];
+            colors[u] = colors[u] == a ? b : a;
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the reduction must stop.
+     *
+     * @param deadline The deadline as a {@link System#nanoTime()} value.
+     * @return True if the deadline passed or the thread was interrupted, otherwise false.
+     */
+    private static boolean isCancelled(long deadline) {
+        return Thread.currentThread().isInterrupted() || System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * Orders the colors by the size of their classes, smallest first.
+     *
+     * @param sizes The size of each color class.
+     * @return The colors, smallest class first, ties broken by the higher color.
+     */
+    private static int[] bySize(int[] sizes) {
+        int[] order = new int[sizes.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = order.length - 1 - i;
+        }
+        // Insertion sort: there are few colors
+        for (int i = 1; i < order.length; i++) {
+            int color = order[i];
+            int j = i - 1;
+            while (j >= 0 && sizes[order[j]] > sizes[color]) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = color;
+        }
+        return order;
+    }
+
+    /**
+     * Counts the colors of a coloring.
+     *
+     * @param colors An array representing the colors of the vertices.
+     * @return The largest color plus one.
+     */
+    private static int countColors(int[] colors) {
+        int maxColor = -1;
+        for (int color : colors) {
+            maxColor = Math.max(maxColor, color);
+        }
+        return maxColor + 1;
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * LargestFirstOrdering orders the vertices of a graph by decreasing degree, as in the Welsh–Powell
+ * algorithm, with ties broken by vertex index. The vertices are sorted with a counting sort on their
+ * degrees, so the ordering takes O(n+Δ) time.
+ */
+public class LargestFirstOrdering implements OrderingStrategy {
+
+    /**
+     * Finds the largest-first ordering of the vertices of the graph.
+     *
+     * @param graph The graph to order.
+     * @return An array of integers representing the order of vertices in the graph.
+     */
+    @Override
+    public int[] findOrdering(AdjacencyStore graph) {
+        int n = graph.getVertices();
+        int maxDegree = 0;
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            if (!graph.isRemoved(v)) {
+                maxDegree = Math.max(maxDegree, graph.getDegree(v));
+                count++;
+            }
+        }
+
+        // Count the vertices of each degree, then place them from the largest degree down
+        int[] start = new int[maxDegree + 2];
+        for (int v = 0; v < n; v++) {
+            if (!graph.isRemoved(v)) {
+                start[maxDegree - graph.getDegree(v) + 1]++;
+            }
+        }
+        for (int d = 0; d <= maxDegree; d++) {
+            start[d + 1] += start[d];
+        }
+        int[] ordering = new int[count];
+        for (int v = 0; v < n; v++) {
+            if (!graph.isRemoved(v)) {
+                ordering[start[maxDegree - graph.getDegree(v)]++] = v;
+            }
+        }
+        return ordering;
+    }
+}
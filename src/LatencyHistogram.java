@@ -0,0 +1,140 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram counts latencies in nanoseconds in log-linear buckets, like an HDR histogram with
+ * three significant digits. Values below 2048 have a bucket each; above that, every power of two is
+ * split into 1024 buckets, so a bucket is never wider than 1/1024 of its values and a percentile is
+ * reported within 0.1%. Memory stays fixed however many values are recorded.
+ * <p>
+ * Any number of threads may record at once; reading is meant for after they are done.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 11;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+
+    private final long highestTrackable;
+    private final AtomicLongArray counts;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Constructs a new, empty LatencyHistogram object.
+     *
+     * @param highestTrackable The largest value with its own bucket; larger values are counted in its bucket.
+     */
+    public LatencyHistogram(long highestTrackable) {
+        if (highestTrackable < SUB_BUCKETS) {
+            throw new IllegalArgumentException("The highest trackable value must be at least " + SUB_BUCKETS);
+        }
+        this.highestTrackable = highestTrackable;
+        this.counts = new AtomicLongArray(indexOf(highestTrackable) + 1);
+    }
+
+    /**
+     * Records one value. Negative values are recorded as 0.
+     *
+     * @param value The latency in nanoseconds.
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        counts.incrementAndGet(indexOf(Math.min(value, highestTrackable)));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        min.accumulateAndGet(value, Math::min);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the smallest recorded value.
+     *
+     * @return The exact minimum, or 0 if nothing was recorded.
+     */
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return The exact maximum, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return The exact mean, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long c = getCount();
+        return c == 0 ? 0 : (double) sum.get() / c;
+    }
+
+    /**
+     * Finds the value below or at which a given percentage of the recorded values lie.
+     *
+     * @param percentile The percentage, from 0 to 100.
+     * @return The largest value of the bucket holding that rank, at most the maximum, or 0 if nothing was
+     * recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Finds the bucket of a value.
+     *
+     * @param value A value from 0 to the highest trackable value.
+     * @return The index of its bucket.
+     */
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // Keep the 11 highest bits: the leading one and 10 bits below it
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    /**
+     * Finds the largest value that falls into a bucket.
+     *
+     * @param index The index of the bucket.
+     * @return The largest value of the bucket.
+     */
+    private static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / HALF + 1;
+        long lowest = (long) ((index - SUB_BUCKETS) % HALF + HALF) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
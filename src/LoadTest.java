@@ -0,0 +1,500 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LoadTest drives the headless coloring engine with a mix of random graphs and reports throughput and
+ * latency percentiles as JSON, to size a fleet of coloring workers.
+ * <p>
+ * The target is either the engine in this JVM ({@code in-process}) or a new {@link ColoringCli} process
+ * per request ({@code cli}), which adds the start-up, parsing and output that a caller of the CLI pays.
+ * Both color through {@link ColoringCli#color(Graph)}. In a closed loop, each thread sends the next
+ * request as soon as the last one returns, which measures the highest throughput. In an open loop,
+ * requests are sent at a fixed rate whatever the latency, to a pool of threads; each latency is taken
+ * from the time the request was due, not from when a thread got to it, so a backlog shows up in the
+ * tail instead of slowing the load down (coordinated omission).
+ * <p>
+ * Usage: {@code java LoadTest [--option=value ...]}, with the options
+ * <ul>
+ * <li>{@code target}: {@code in-process} or {@code cli}, default {@code in-process}</li>
+ * <li>{@code mode}: {@code closed} or {@code open}, default {@code closed}</li>
+ * <li>{@code threads}: the clients of a closed loop or the pool of an open loop, default the number of cores</li>
+ * <li>{@code rate}: the requests per second of an open loop, default 100</li>
+ * <li>{@code duration}, {@code warmup}: the seconds measured and the seconds before them, default 30 and 5</li>
+ * <li>{@code mix}: the vertex counts and their weights, default {@code 100:0.6,1000:0.3,10000:0.1}</li>
+ * <li>{@code degree}: the average degree of the graphs, default 6</li>
+ * <li>{@code seed}: the seed of the graphs and of the choice of graph per request, default 1</li>
+ * <li>{@code report}: the file to write the report to, default the standard output</li>
+ * </ul>
+ */
+public class LoadTest {
+    public static final int GRAPHS_PER_SIZE = 8;
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toNanos(10);
+
+    private String target = "in-process";
+    private String mode = "closed";
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private double rate = 100;
+    private double duration = 30;
+    private double warmup = 5;
+    private int[] sizes = {100, 1000, 10000};
+    private double[] weights = {0.6, 0.3, 0.1};
+    private double degree = 6;
+    private long seed = 1;
+    private String report = "-";
+
+    private Graph[][] graphs;
+    private byte[][][] inputs;
+    private LatencyHistogram latency;
+    private LatencyHistogram[] latencyBySize;
+    private final AtomicLong errors = new AtomicLong();
+    private long measureStart;
+    private final AtomicLong lastCompletion = new AtomicLong();
+    private int maxQueued;
+
+    /**
+     * Runs a load test and writes its report.
+     *
+     * @param args The options, each as {@code --name=value}.
+     * @throws IOException          If the report cannot be written.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadTest test = new LoadTest();
+        try {
+            for (String arg : args) {
+                test.setOption(arg);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: java LoadTest [--target=in-process|cli] [--mode=closed|open] [--threads=N] "
+                    + "[--rate=N] [--duration=S] [--warmup=S] [--mix=V:W,...] [--degree=D] [--seed=N] [--report=FILE]");
+            System.exit(2);
+        }
+        test.run();
+        String json = test.toJson();
+        if (test.report.equals("-")) {
+            System.out.println(json);
+        } else {
+            Files.writeString(Path.of(test.report), json + System.lineSeparator());
+        }
+    }
+
+    /**
+     * Sets one option.
+     *
+     * @param arg The option as {@code --name=value}.
+     * @throws IllegalArgumentException If the option is unknown or its value is not valid.
+     */
+    private void setOption(String arg) {
+        int equals = arg.indexOf('=');
+        if (!arg.startsWith("--") || equals == -1) {
+            throw new IllegalArgumentException("Options take the form --name=value: " + arg);
+        }
+        String name = arg.substring(2, equals);
+        String value = arg.substring(equals + 1);
+        try {
+            switch (name) {
+                case "target" -> target = choose(value, "in-process", "cli");
+                case "mode" -> mode = choose(value, "closed", "open");
+                case "threads" -> threads = positive(Integer.parseInt(value), name);
+                case "rate" -> rate = positive(Double.parseDouble(value), name);
+                case "duration" -> duration = positive(Double.parseDouble(value), name);
+                case "warmup" -> warmup = Math.max(0, Double.parseDouble(value));
+                case "mix" -> setMix(value);
+                case "degree" -> degree = Math.max(0, Double.parseDouble(value));
+                case "seed" -> seed = Long.parseLong(value);
+                case "report" -> report = value;
+                default -> throw new IllegalArgumentException("Unknown option " + name);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("The value of " + name + " is not a number: " + value);
+        }
+    }
+
+    /**
+     * Parses the mix of graph sizes.
+     *
+     * @param value The vertex counts and weights as {@code vertices:weight}, separated by commas.
+     * @throws IllegalArgumentException If an entry is not valid.
+     */
+    private void setMix(String value) {
+        String[] entries = value.split(",");
+        sizes = new int[entries.length];
+        weights = new double[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            String[] parts = entries[i].split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("A mix entry takes the form vertices:weight: " + entries[i]);
+            }
+            sizes[i] = positive(Integer.parseInt(parts[0].trim()), "vertices");
+            weights[i] = positive(Double.parseDouble(parts[1].trim()), "weight");
+        }
+    }
+
+    /**
+     * Runs the test: builds the graphs, warms up and measures.
+     *
+     * @throws InterruptedException If the test is interrupted.
+     */
+    private void run() throws InterruptedException {
+        createGraphs();
+        latency = new LatencyHistogram(HIGHEST_TRACKABLE);
+        latencyBySize = new LatencyHistogram[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            latencyBySize[i] = new LatencyHistogram(HIGHEST_TRACKABLE);
+        }
+        long start = System.nanoTime();
+        measureStart = start + (long) (warmup * 1e9);
+        long end = measureStart + (long) (duration * 1e9);
+        lastCompletion.set(measureStart);
+        if (mode.equals("closed")) {
+            runClosed(end);
+        } else {
+            runOpen(start, end);
+        }
+    }
+
+    /**
+     * Runs a closed loop: every thread sends its next request when the last one returns.
+     *
+     * @param end The time at which no more requests are sent.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    private void runClosed(long end) throws InterruptedException {
+        Thread[] clients = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            Random random = new Random(seed + 1 + t);
+            clients[t] = new Thread(() -> {
+                for (long sent = System.nanoTime(); sent < end; sent = System.nanoTime()) {
+                    request(random, sent);
+                }
+            }, "load-client-" + t);
+            clients[t].start();
+        }
+        for (Thread client : clients) {
+            client.join();
+        }
+    }
+
+    /**
+     * Runs an open loop: requests are due at a fixed rate and wait in a queue until a thread is free.
+     *
+     * @param start The time the first request is due.
+     * @param end   The time at which no more requests are due.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    private void runOpen(long start, long end) throws InterruptedException {
+        AtomicLong workers = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(threads,
+                task -> new Thread(task, "load-worker-" + workers.getAndIncrement()));
+        Random random = new Random(seed);
+        double period = 1e9 / rate;
+        try {
+            for (long i = 0; ; i++) {
+                long due = start + (long) (i * period);
+                if (due >= end) break;
+                for (long wait = due - System.nanoTime(); wait > 0; wait = due - System.nanoTime()) {
+                    LockSupport.parkNanos(wait);
+                }
+                // The graph is chosen here, so the sequence of requests does not depend on thread scheduling
+                int size = chooseSize(random);
+                int graph = random.nextInt(GRAPHS_PER_SIZE);
+                pool.execute(() -> request(size, graph, due));
+                maxQueued = Math.max(maxQueued, ((ThreadPoolExecutor) pool).getQueue().size());
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Sends one request for a random graph of the mix.
+     *
+     * @param random The random numbers of the calling thread.
+     * @param due    The time the request was due.
+     */
+    private void request(Random random, long due) {
+        int size = chooseSize(random);
+        request(size, random.nextInt(GRAPHS_PER_SIZE), due);
+    }
+
+    /**
+     * Sends one request and records its latency if it was due after the warm-up. A request that fails
+     * counts as an error.
+     *
+     * @param size  The index of the size of the graph in the mix.
+     * @param graph The index of the graph among those of its size.
+     * @param due   The time the request was due.
+     */
+    private void request(int size, int graph, long due) {
+        try {
+            if (target.equals("cli")) {
+                runCli(inputs[size][graph], graphs[size][graph].getVertices());
+            } else {
+                ColoringCli.color(graphs[size][graph]);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (due >= measureStart) {
+                errors.incrementAndGet();
+            }
+            return;
+        }
+        long done = System.nanoTime();
+        if (due >= measureStart) {
+            latency.record(done - due);
+            latencyBySize[size].record(done - due);
+            lastCompletion.accumulateAndGet(done, Math::max);
+        }
+    }
+
+    /**
+     * Colors a graph in a new CLI process, started with the class path of this one and default JVM options.
+     *
+     * @param input    The graph in the input format of the CLI.
+     * @param vertices The number of vertices, which is the number of lines expected back.
+     * @throws IOException If the process fails or its output is incomplete.
+     */
+    private static void runCli(byte[] input, int vertices) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("ColoringCli");
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        // The CLI reads all of its input before it writes, so the pipes cannot fill up both ways
+        try (OutputStream in = process.getOutputStream()) {
+            in.write(input);
+        }
+        long lines = 0;
+        try (InputStream out = process.getInputStream()) {
+            byte[] buffer = new byte[1 << 16];
+            for (int read = out.read(buffer); read != -1; read = out.read(buffer)) {
+                for (int i = 0; i < read; i++) {
+                    if (buffer[i] == '\n') lines++;
+                }
+            }
+        }
+        try {
+            int status = process.waitFor();
+            if (status != 0 || lines != vertices) {
+                throw new IOException("The CLI exited with status " + status + " after " + lines + " of " + vertices + " lines");
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the CLI", e);
+        }
+    }
+
+    /**
+     * Builds the random graphs of each size, and their CLI input if the CLI is the target.
+     */
+    private void createGraphs() {
+        Random random = new Random(seed);
+        graphs = new Graph[sizes.length][GRAPHS_PER_SIZE];
+        inputs = new byte[sizes.length][GRAPHS_PER_SIZE][];
+        for (int s = 0; s < sizes.length; s++) {
+            for (int g = 0; g < GRAPHS_PER_SIZE; g++) {
+                int n = sizes[s];
+                GraphBuilder builder = new GraphBuilder(n);
+                long edges = (long) (n * degree / 2);
+                for (long e = 0; e < edges; e++) {
+                    builder.addEdge(random.nextInt(n), random.nextInt(n));
+                }
+                graphs[s][g] = builder.build();
+                if (target.equals("cli")) {
+                    inputs[s][g] = toCliInput(graphs[s][g]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a graph in the input format of {@link ColoringCli}.
+     *
+     * @param graph The graph.
+     * @return The number of vertices followed by one line per edge.
+     */
+    private static byte[] toCliInput(Graph graph) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(bytes, false, StandardCharsets.US_ASCII);
+        out.println(graph.getVertices());
+        for (int v = 0; v < graph.getVertices(); v++) {
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                int u = graph.getNeighbor(v, i);
+                if (v < u) {
+                    out.print(v);
+                    out.print(' ');
+                    out.println(u);
+                }
+            }
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Chooses the size of the graph of a request by the weights of the mix.
+     *
+     * @param random The random numbers to use.
+     * @return The index of the size in the mix.
+     */
+    private int chooseSize(Random random) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double x = random.nextDouble() * total;
+        for (int i = 0; i < weights.length - 1; i++) {
+            x -= weights[i];
+            if (x < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Writes the report: the settings, the throughput and the latencies, in total and per graph size.
+     *
+     * @return The report as JSON.
+     */
+    private String toJson() {
+        double seconds = (lastCompletion.get() - measureStart) / 1e9;
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"target\": \"").append(target).append("\",\n");
+        json.append("  \"mode\": \"").append(mode).append("\",\n");
+        json.append("  \"threads\": ").append(threads).append(",\n");
+        if (mode.equals("open")) {
+            json.append("  \"targetRate\": ").append(number(rate)).append(",\n");
+            json.append("  \"maxQueued\": ").append(maxQueued).append(",\n");
+        }
+        json.append("  \"warmupSeconds\": ").append(number(warmup)).append(",\n");
+        json.append("  \"durationSeconds\": ").append(number(duration)).append(",\n");
+        json.append("  \"averageDegree\": ").append(number(degree)).append(",\n");
+        json.append("  \"seed\": ").append(seed).append(",\n");
+        json.append("  \"requests\": ").append(latency.getCount()).append(",\n");
+        json.append("  \"errors\": ").append(errors.get()).append(",\n");
+        json.append("  \"throughput\": ").append(number(seconds > 0 ? latency.getCount() / seconds : 0)).append(",\n");
+        json.append("  \"latencyMillis\": ");
+        appendLatency(json, latency, "  ");
+        json.append(",\n  \"sizes\": [");
+        for (int i = 0; i < sizes.length; i++) {
+            json.append(i == 0 ? "\n" : ",\n");
+            json.append("    {\n");
+            json.append("      \"vertices\": ").append(sizes[i]).append(",\n");
+            json.append("      \"weight\": ").append(number(weights[i])).append(",\n");
+            json.append("      \"requests\": ").append(latencyBySize[i].getCount()).append(",\n");
+            json.append("      \"latencyMillis\": ");
+            appendLatency(json, latencyBySize[i], "      ");
+            json.append("\n    }");
+        }
+        json.append("\n  ]\n}");
+        return json.toString();
+    }
+
+    /**
+     * Writes the summary of a histogram as a JSON object, in milliseconds.
+     *
+     * @param json      The report being written.
+     * @param histogram The latencies.
+     * @param indent    The indentation of the line the object starts on.
+     */
+    private static void appendLatency(StringBuilder json, LatencyHistogram histogram, String indent) {
+        json.append("{\n");
+        json.append(indent).append("  \"min\": ").append(millis(histogram.getMin())).append(",\n");
+        json.append(indent).append("  \"mean\": ").append(number(histogram.getMean() / 1e6)).append(",\n");
+        json.append(indent).append("  \"p50\": ").append(millis(histogram.getValueAtPercentile(50))).append(",\n");
+        json.append(indent).append("  \"p90\": ").append(millis(histogram.getValueAtPercentile(90))).append(",\n");
+        json.append(indent).append("  \"p99\": ").append(millis(histogram.getValueAtPercentile(99))).append(",\n");
+        json.append(indent).append("  \"p99.9\": ").append(millis(histogram.getValueAtPercentile(99.9))).append(",\n");
+        json.append(indent).append("  \"max\": ").append(millis(histogram.getMax())).append("\n");
+        json.append(indent).append("}");
+    }
+
+    /**
+     * Formats a duration in nanoseconds as milliseconds.
+     *
+     * @param nanos The duration.
+     * @return The milliseconds with three decimals.
+     */
+    private static String millis(long nanos) {
+        return number(nanos / 1e6);
+    }
+
+    /**
+     * Formats a number for JSON, independent of the default locale.
+     *
+     * @param value The number.
+     * @return The number with three decimals.
+     */
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+
+    /**
+     * Checks a value against a list of choices.
+     *
+     * @param value   The value.
+     * @param choices The allowed values.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is not one of the choices.
+     */
+    private static String choose(String value, String... choices) {
+        for (String choice : choices) {
+            if (choice.equals(value)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Expected one of " + String.join(", ", choices) + ": " + value);
+    }
+
+    /**
+     * Checks that a number is positive.
+     *
+     * @param value The number.
+     * @param name  The name of the option, for the message.
+     * @return The number.
+     * @throws IllegalArgumentException If the number is not positive.
+     */
+    private static int positive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("The " + name + " must be positive: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * Checks that a number is positive.
+     *
+     * @param value The number.
+     * @param name  The name of the option, for the message.
+     * @return The number.
+     * @throws IllegalArgumentException If the number is not positive.
+     */
+    private static double positive(double value, String name) {
+        if (!(value > 0)) {
+            throw new IllegalArgumentException("The " + name + " must be positive: " + value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * OrderingStrategy provides the order in which the vertices of a graph are colored greedily.
+ * Strategies only read the graph, so one snapshot can be ordered by several strategies at once.
+ */
+public interface OrderingStrategy {
+
+    /**
+     * Finds an ordering of the vertices of the graph. Removed vertices are left out of the ordering.
+     *
+     * @param graph The graph to order.
+     * @return An array of integers representing the order of vertices in the graph.
+     */
+    int[] findOrdering(AdjacencyStore graph);
+}
@@ -0,0 +1,336 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * ParallelBfs is a direction-optimizing breadth-first search over an {@link AdjacencyStore}.
+ * While the frontier is small, it expands the frontier top-down, claiming unvisited neighbors with
+ * atomic operations on a visited bitset. Once the frontier's edges outweigh the unvisited part of the
+ * graph, it switches to bottom-up steps, in which every unvisited vertex looks for a parent in the
+ * frontier, and it switches back when the frontier shrinks again. Large levels are processed in
+ * parallel; each level is sorted, so results do not depend on thread scheduling.
+ * <p>
+ * Removed vertices are ignored: they are never visited and never connect other vertices.
+ */
+public class ParallelBfs {
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private final AdjacencyStore graph;
+    private int componentCount;
+
+    /**
+     * Constructs a new ParallelBfs object for the given graph.
+     *
+     * @param graph The graph to search.
+     */
+    public ParallelBfs(AdjacencyStore graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Finds the breadth-first order of the vertices reachable from a source.
+     *
+     * @param source The vertex to start from.
+     * @return The reached vertices by level, in ascending order within a level.
+     */
+    public int[] findOrdering(int source) {
+        int[] order = new int[graph.getVertices()];
+        int[] size = new int[1];
+        traverse(source, new AtomicLongArray(words(graph.getVertices())), degreeSum(), (frontier, level) -> {
+            System.arraycopy(frontier, 0, order, size[0], frontier.length);
+            size[0] += frontier.length;
+        });
+        return Arrays.copyOf(order, size[0]);
+    }
+
+    /**
+     * Finds the distance of every vertex from a source.
+     *
+     * @param source The vertex to start from.
+     * @return The level of each vertex, or -1 if it was not reached.
+     */
+    public int[] levels(int source) {
+        int[] levels = new int[graph.getVertices()];
+        Arrays.fill(levels, -1);
+        traverse(source, new AtomicLongArray(words(graph.getVertices())), degreeSum(), (frontier, level) -> {
+            for (int v : frontier) {
+                levels[v] = level;
+            }
+        });
+        return levels;
+    }
+
+    /**
+     * Determines whether all vertices that were not removed are connected.
+     *
+     * @return True if the graph is connected, otherwise false.
+     */
+    public boolean isConnected() {
+        int source = firstVertex();
+        if (source == -1) {
+            return true;
+        }
+        if (graph.getVertices() < PARALLEL_THRESHOLD) {
+            return isConnectedFrom(source);
+        }
+        long[] reached = new long[1];
+        traverse(source, new AtomicLongArray(words(graph.getVertices())), degreeSum(), (frontier, level) -> reached[0] += frontier.length);
+        long vertices = IntStream.range(0, graph.getVertices()).filter(v -> !graph.isRemoved(v)).count();
+        return reached[0] == vertices;
+    }
+
+    /**
+     * Determines connectivity with a sequential breadth-first search, for graphs too small to gain from
+     * the parallel one. The queue and the visited set are borrowed from the thread's arena.
+     *
+     * @param source A vertex that was not removed.
+     * @return True if every vertex that was not removed is reached from the source, otherwise false.
+     */
+    private boolean isConnectedFrom(int source) {
+        int n = graph.getVertices();
+        ScratchArena arena = ScratchArena.current();
+        int mark = arena.mark();
+        try {
+            int[] queue = arena.ints(n);
+            ScratchArena.Stamps visited = arena.stamps(n);
+            int head = 0;
+            int tail = 0;
+            visited.add(source);
+            queue[tail++] = source;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int i = 0; i < graph.getDegree(v); i++) {
+                    int u = graph.getNeighbor(v, i);
+                    if (!graph.isRemoved(u) && visited.add(u)) {
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            for (int v = 0; v < n; v++) {
+                if (!graph.isRemoved(v) && !visited.contains(v)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            arena.release(mark);
+        }
+    }
+
+    /**
+     * Labels the connected components of the graph.
+     *
+     * @return The component of each vertex, numbered from 0 in order of their smallest vertex,
+     * or -1 for removed vertices.
+     */
+    public int[] labelComponents() {
+        int n = graph.getVertices();
+        int[] components = new int[n];
+        Arrays.fill(components, -1);
+        AtomicLongArray visited = new AtomicLongArray(words(n));
+        long unexploredEdges = degreeSum();
+        componentCount = 0;
+        for (int v = 0; v < n; v++) {
+            if (graph.isRemoved(v) || isSet(visited, v)) {
+                continue;
+            }
+            int component = componentCount++;
+            unexploredEdges = traverse(v, visited, unexploredEdges, (frontier, level) -> {
+                for (int u : frontier) {
+                    components[u] = component;
+                }
+            });
+        }
+        return components;
+    }
+
+    /**
+     * Returns the number of components found by the last call to {@link #labelComponents()}.
+     *
+     * @return The number of components.
+     */
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Runs the search from a source, handing every level to the visitor.
+     *
+     * @param source          The vertex to start from.
+     * @param visited         The visited bitset, shared by searches that must not revisit vertices.
+     * @param unexploredEdges The sum of the degrees of the unvisited vertices.
+     * @param visitor         The visitor of each level.
+     * @return The sum of the degrees of the vertices still unvisited after the search.
+     */
+    private long traverse(int source, AtomicLongArray visited, long unexploredEdges, LevelVisitor visitor) {
+        int n = graph.getVertices();
+        setBit(visited, source);
+        unexploredEdges -= graph.getDegree(source);
+        int[] frontier = {source};
+
+        boolean bottomUp = false;
+        int level = 0;
+        while (frontier.length > 0) {
+            visitor.visit(frontier, level++);
+
+            long frontierEdges = 0;
+            for (int v : frontier) {
+                frontierEdges += graph.getDegree(v);
+            }
+            if (!bottomUp && frontierEdges > unexploredEdges / ALPHA) {
+                bottomUp = true;
+            } else if (bottomUp && frontier.length < n / BETA) {
+                bottomUp = false;
+            }
+
+            frontier = bottomUp ? bottomUpStep(frontier, visited) : topDownStep(frontier, visited);
+            for (int v : frontier) {
+                unexploredEdges -= graph.getDegree(v);
+            }
+        }
+        return unexploredEdges;
+    }
+
+    /**
+     * Sums the degrees of all vertices, the edges a search starting from scratch has left to explore.
+     *
+     * @return The sum of the degrees.
+     */
+    private long degreeSum() {
+        long sum = 0;
+        for (int v = 0; v < graph.getVertices(); v++) {
+            sum += graph.getDegree(v);
+        }
+        return sum;
+    }
+
+    /**
+     * Expands the frontier by claiming the unvisited neighbors of its vertices.
+     *
+     * @param frontier The current frontier.
+     * @param visited  The visited bitset.
+     * @return The next frontier, sorted.
+     */
+    private int[] topDownStep(int[] frontier, AtomicLongArray visited) {
+        IntStream stream = IntStream.of(frontier);
+        if (frontier.length >= PARALLEL_THRESHOLD) {
+            stream = stream.parallel();
+        }
+        int[] next = stream.mapMulti((v, sink) -> {
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                int neighbor = graph.getNeighbor(v, i);
+                if (!graph.isRemoved(neighbor) && setBit(visited, neighbor)) {
+                    sink.accept(neighbor);
+                }
+            }
+        }).toArray();
+        Arrays.sort(next);
+        return next;
+    }
+
+    /**
+     * Lets every unvisited vertex look for a neighbor in the frontier.
+     *
+     * @param frontier The current frontier.
+     * @param visited  The visited bitset.
+     * @return The next frontier, sorted.
+     */
+    private int[] bottomUpStep(int[] frontier, AtomicLongArray visited) {
+        int n = graph.getVertices();
+        long[] inFrontier = new long[words(n)];
+        for (int v : frontier) {
+            inFrontier[v >>> 6] |= 1L << v;
+        }
+        IntStream stream = IntStream.range(0, n);
+        if (n >= PARALLEL_THRESHOLD) {
+            stream = stream.parallel();
+        }
+        int[] next = stream.filter(v -> {
+            if (graph.isRemoved(v) || isSet(visited, v)) {
+                return false;
+            }
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                int neighbor = graph.getNeighbor(v, i);
+                if ((inFrontier[neighbor >>> 6] & (1L << neighbor)) != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }).toArray();
+        for (int v : next) {
+            setBit(visited, v);
+        }
+        return next;
+    }
+
+    /**
+     * Finds the first vertex that was not removed.
+     *
+     * @return The vertex, or -1 if all vertices were removed.
+     */
+    private int firstVertex() {
+        for (int v = 0; v < graph.getVertices(); v++) {
+            if (!graph.isRemoved(v)) {
+                return v;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Computes the number of 64-bit words needed for a bitset.
+     *
+     * @param bits The number of bits.
+     * @return The number of words.
+     */
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Checks if a bit is set.
+     *
+     * @param bits The bitset.
+     * @param v    The bit.
+     * @return True if the bit is set, otherwise false.
+     */
+    private static boolean isSet(AtomicLongArray bits, int v) {
+        return (bits.get(v >>> 6) & (1L << v)) != 0;
+    }
+
+    /**
+     * Atomically sets a bit.
+     *
+     * @param bits The bitset.
+     * @param v    The bit.
+     * @return True if this call set the bit, false if it was already set.
+     */
+    private static boolean setBit(AtomicLongArray bits, int v) {
+        long mask = 1L << v;
+        long word = bits.get(v >>> 6);
+        while ((word & mask) == 0) {
+            long witness = bits.compareAndExchange(v >>> 6, word, word | mask);
+            if (witness == word) {
+                return true;
+            }
+            word = witness;
+        }
+        return false;
+    }
+
+    /**
+     * LevelVisitor receives the levels of a search in order.
+     */
+    private interface LevelVisitor {
+
+        /**
+         * Visits one level of the search.
+         *
+         * @param frontier The vertices of the level.
+         * @param level    The distance of the level from the source.
+         */
+        void visit(int[] frontier, int level);
+    }
+}
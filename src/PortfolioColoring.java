@@ -0,0 +1,250 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+/**
+ * PortfolioColoring colors a graph greedily in several orderings at once and keeps the coloring with
+ * the fewest colors. The orderings run concurrently on a thread pool over one immutable
+ * {@link GraphSnapshot} of the graph, and the portfolio stops as soon as a coloring meets a known lower
+ * bound on the number of colors, by default the size of a clique found greedily by {@link CliqueFinder}.
+ * <p>
+ * Stopping interrupts the orderings still running. The built-in smallest-last and DSatur orderings
+ * check for interruption and stop within a thousand vertices, and an ordering that finishes after the
+ * stop skips its greedy pass. The other built-in orderings take linear time and run to the end, and
+ * orderings added with {@link #addStrategy(String, OrderingStrategy)} stop only if they check for
+ * interruption themselves.
+ * <p>
+ * The default portfolio holds the identity order, the reverse DFS order of {@link SpanningTreeOrdering},
+ * and the {@link LargestFirstOrdering}, {@link SmallestLastOrdering} and {@link DSaturOrdering}.
+ * Among colorings with the same number of colors, the one whose ordering was added first wins,
+ * so runs without an early stop are reproducible.
+ */
+public class PortfolioColoring {
+    private final GraphSnapshot snapshot;
+    private final List<String> names = new ArrayList<>();
+    private final List<OrderingStrategy> strategies = new ArrayList<>();
+    private int lowerBound;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private String bestName;
+    private int bestColors;
+    private boolean stoppedEarly;
+
+    /**
+     * Constructs a new PortfolioColoring object with the default portfolio. Later changes to the
+     * graph do not affect the coloring.
+     *
+     * @param graph The graph to color.
+     */
+    public PortfolioColoring(AdjacencyStore graph) {
+        this.snapshot = GraphSnapshot.copyOf(graph);
+        this.lowerBound = Math.max(snapshot.getEdgeCount() == 0 ? 1 : 2, new CliqueFinder(snapshot).find(0).length);
+        addStrategy("identity", g -> IntStream.range(0, g.getVertices()).filter(v -> !g.isRemoved(v)).toArray());
+        addStrategy("spanning-tree", PortfolioColoring::spanningTreeOrdering);
+        addStrategy("largest-first", new LargestFirstOrdering());
+        SmallestLastOrdering smallestLast = new SmallestLastOrdering();
+        smallestLast.setInterruptible(true);
+        addStrategy("smallest-last", smallestLast);
+        DSaturOrdering dsatur = new DSaturOrdering();
+        dsatur.setInterruptible(true);
+        addStrategy("dsatur", dsatur);
+    }
+
+    /**
+     * Adds an ordering to the portfolio. The strategy must not keep state shared with other strategies.
+     *
+     * @param name     The name of the ordering, reported if it wins.
+     * @param strategy The ordering strategy.
+     */
+    public void addStrategy(String name, OrderingStrategy strategy) {
+        names.add(name);
+        strategies.add(strategy);
+    }
+
+    /**
+     * Adds random orderings to the portfolio.
+     *
+     * @param count The number of random orderings.
+     * @param seed  The seed of the first ordering; the others use the following seeds.
+     */
+    public void addRandomOrderings(int count, long seed) {
+        for (int i = 0; i < count; i++) {
+            long orderingSeed = seed + i;
+            addStrategy("random-" + orderingSeed, g -> randomOrdering(g, orderingSeed));
+        }
+    }
+
+    /**
+     * Sets a lower bound on the number of colors, such as the size of a known clique. The portfolio
+     * stops as soon as a coloring uses that many colors.
+     *
+     * @param lowerBound The lower bound.
+     */
+    public void setLowerBound(int lowerBound) {
+        this.lowerBound = lowerBound;
+    }
+
+    /**
+     * Sets the number of threads the orderings run on.
+     *
+     * @param threads The number of threads.
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Colors the graph with every ordering of the portfolio and returns the best coloring.
+     * If the thread is interrupted, the best coloring so far is returned and the interrupt stays set.
+     *
+     * @return An array containing the colors of the vertices.
+     * @throws CancellationException If the thread was interrupted before any coloring finished.
+     */
+    public int[] color() {
+        int maxDegree = snapshot.getMaxDegree();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, strategies.size())));
+        CompletionService<int[]> completion = new ExecutorCompletionService<>(pool);
+        List<Future<int[]>> futures = new ArrayList<>();
+        for (OrderingStrategy strategy : strategies) {
+            futures.add(completion.submit(() -> {
+                int[] ordering = strategy.findOrdering(snapshot);
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("The portfolio stopped before the greedy pass");
+                }
+                return GreedyColoring.color(snapshot, ordering, maxDegree);
+            }));
+        }
+
+        int[] best = null;
+        int bestIndex = -1;
+        bestColors = Integer.MAX_VALUE;
+        bestName = null;
+        stoppedEarly = false;
+        try {
+            for (int received = 0; received < futures.size(); received++) {
+                Future<int[]> future = completion.take();
+                int[] colors;
+                try {
+                    colors = future.get();
+                } catch (ExecutionException e) {
+                    // An ordering that fails, e.g. one that needs a connected graph, drops out of the portfolio
+                    continue;
+                }
+                int index = futures.indexOf(future);
+                int count = countColors(colors);
+                if (count < bestColors || (count == bestColors && index < bestIndex)) {
+                    best = colors;
+                    bestIndex = index;
+                    bestColors = count;
+                    bestName = names.get(index);
+                }
+                if (bestColors <= lowerBound) {
+                    stoppedEarly = received < futures.size() - 1;
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (best == null) {
+                throw new CancellationException("Portfolio coloring was interrupted");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        if (best == null) {
+            throw new RuntimeException("No ordering of the portfolio could color the graph");
+        }
+        return best;
+    }
+
+    /**
+     * Returns the name of the ordering that found the coloring returned by the last call to {@link #color()}.
+     *
+     * @return The name of the ordering.
+     */
+    public String getBestName() {
+        return bestName;
+    }
+
+    /**
+     * Returns the number of colors of the coloring returned by the last call to {@link #color()}.
+     *
+     * @return The number of colors.
+     */
+    public int getColorsUsed() {
+        return bestColors;
+    }
+
+    /**
+     * Checks if the last call to {@link #color()} stopped before every ordering finished,
+     * because a coloring met the lower bound.
+     *
+     * @return True if the portfolio stopped early, otherwise false.
+     */
+    public boolean isStoppedEarly() {
+        return stoppedEarly;
+    }
+
+    /**
+     * Finds the reverse DFS order of a spanning tree, rooted in a vertex with degree smaller than Δ(G)
+     * if there is one.
+     *
+     * @param graph The graph to order.
+     * @return An array of integers representing the order of vertices in the graph.
+     * @throws IllegalArgumentException If the graph is not connected.
+     */
+    private static int[] spanningTreeOrdering(AdjacencyStore graph) {
+        if (!graph.isConnected()) {
+            throw new IllegalArgumentException("A spanning tree ordering needs a connected graph");
+        }
+        SpanningTreeOrdering sto = new SpanningTreeOrdering(graph);
+        if (sto.getRoot() == -1) {
+            int root = 0;
+            while (graph.isRemoved(root)) {
+                root++;
+            }
+            sto = new SpanningTreeOrdering(graph, root);
+        }
+        return sto.findOrdering();
+    }
+
+    /**
+     * Shuffles the vertices of a graph.
+     *
+     * @param graph The graph to order.
+     * @param seed  The seed of the shuffle.
+     * @return An array of integers representing the order of vertices in the graph.
+     */
+    private static int[] randomOrdering(AdjacencyStore graph, long seed) {
+        int[] ordering = IntStream.range(0, graph.getVertices()).filter(v -> !graph.isRemoved(v)).toArray();
+        Random random = new Random(seed);
+        for (int i = ordering.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ordering[i];
+            ordering[i] = ordering[j];
+            ordering[j] = tmp;
+        }
+        return ordering;
+    }
+
+    /**
+     * Counts the colors of a coloring.
+     *
+     * @param colors An array representing the colors of the vertices.
+     * @return The largest color plus one.
+     */
+    private static int countColors(int[] colors) {
+        int maxColor = -1;
+        for (int color : colors) {
+            maxColor = Math.max(maxColor, color);
+        }
+        return maxColor + 1;
+    }
+}
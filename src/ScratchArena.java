@@ -0,0 +1,168 @@
+import java.util.Arrays;
+
+/**
+ * ScratchArena lends the temporary arrays of the graph algorithms to one thread, so a worker that
+ * colors many graphs one after another reuses the same memory instead of allocating it on every call.
+ * <p>
+ * Borrowing is nested like a stack: an algorithm takes a {@link #mark()}, borrows what it needs, and
+ * releases back to the mark in a finally block, which lends the same arrays to the next call. Int
+ * arrays are lent with whatever they held before. Sets of vertices are lent as {@link Stamps}, which
+ * are emptied in constant time by moving to a new generation; their array is cleared only when the
+ * generation number wraps around. Arrays only grow, so a thread keeps the memory of the largest graph
+ * it worked on.
+ */
+public final class ScratchArena {
+    private static final ThreadLocal<ScratchArena> CURRENT = ThreadLocal.withInitial(ScratchArena::new);
+
+    private Slot[] slots = new Slot[8];
+    private int depth;
+
+    /**
+     * Constructs a new, empty ScratchArena object.
+     */
+    private ScratchArena() {
+    }
+
+    /**
+     * Returns the arena of the current thread.
+     *
+     * @return The arena.
+     */
+    public static ScratchArena current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Marks the current position, to release everything borrowed after it.
+     *
+     * @return The mark.
+     */
+    public int mark() {
+        return depth;
+    }
+
+    /**
+     * Gives back everything borrowed since a mark. The released arrays must not be used anymore.
+     *
+     * @param mark The mark returned by {@link #mark()}.
+     */
+    public void release(int mark) {
+        depth = mark;
+    }
+
+    /**
+     * Borrows an int array. Its contents are left over from earlier use.
+     *
+     * @param length The smallest length needed.
+     * @return An array at least that long.
+     */
+    public int[] ints(int length) {
+        Slot slot = next();
+        if (slot.ints.length < length) {
+            slot.ints = new int[Math.max(length, slot.ints.length * 2)];
+        }
+        return slot.ints;
+    }
+
+    /**
+     * Borrows an empty set of vertices.
+     *
+     * @param length The number of vertices.
+     * @return The set.
+     */
+    public Stamps stamps(int length) {
+        Slot slot = next();
+        slot.stamps.clear(length);
+        return slot.stamps;
+    }
+
+    /**
+     * Borrows an empty set of forbidden colors.
+     *
+     * @param maxColor The largest color that may be used.
+     * @return The set.
+     */
+    public ColorBitmask colorBitmask(int maxColor) {
+        Slot slot = next();
+        if (slot.colorBitmask == null) {
+            slot.colorBitmask = new ColorBitmask(maxColor);
+        } else {
+            slot.colorBitmask.reset(maxColor);
+        }
+        return slot.colorBitmask;
+    }
+
+    /**
+     * Takes the next slot, adding one if the arena is full.
+     *
+     * @return The slot.
+     */
+    private Slot next() {
+        if (depth == slots.length) {
+            slots = Arrays.copyOf(slots, slots.length * 2);
+        }
+        if (slots[depth] == null) {
+            slots[depth] = new Slot();
+        }
+        return slots[depth++];
+    }
+
+    /**
+     * Stamps is a set of vertices that marks each member with the current generation number.
+     */
+    public static final class Stamps {
+        private int[] marks = new int[0];
+        private int generation;
+
+        /**
+         * Empties the set by moving to a new generation.
+         *
+         * @param length The number of vertices the set must hold.
+         */
+        private void clear(int length) {
+            if (marks.length < length) {
+                marks = new int[Math.max(length, marks.length * 2)];
+                generation = 0;
+            }
+            generation++;
+            if (generation == Integer.MAX_VALUE) {
+                // Old marks could be mistaken for the new generation
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        /**
+         * Checks if a vertex is in the set.
+         *
+         * @param v The vertex.
+         * @return True if the vertex was added since the set was borrowed, otherwise false.
+         */
+        public boolean contains(int v) {
+            return marks[v] == generation;
+        }
+
+        /**
+         * Adds a vertex to the set.
+         *
+         * @param v The vertex.
+         * @return True if the vertex was not in the set yet, otherwise false.
+         */
+        public boolean add(int v) {
+            if (marks[v] == generation) {
+                return false;
+            }
+            marks[v] = generation;
+            return true;
+        }
+    }
+
+    /**
+     * Slot holds what one level of the arena lends, kept for the next borrower.
+     */
+    private static final class Slot {
+        private int[] ints = new int[0];
+        private final Stamps stamps = new Stamps();
+        private ColorBitmask colorBitmask;
+    }
+}
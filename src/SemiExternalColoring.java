@@ -0,0 +1,358 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * SemiExternalColoring colors graphs whose edges do not fit in memory. Only per-vertex state (degrees,
+ * order and colors) is kept in memory, while the edges are streamed from a binary edge file in
+ * sequential passes.
+ * <p>
+ * The greedy coloring walks the ordering in batches sized to a memory budget. One pass over the edges
+ * per batch records, for every vertex of the batch, the colors of its neighbors from earlier batches in
+ * a bitset, and the edges inside the batch in a list; the batch is then colored in order in memory.
+ * The result is the same as coloring the whole graph greedily in that order.
+ * <p>
+ * The edge file holds a header (magic number, int vertices, long edge count) followed by each edge once
+ * as a pair of int vertices, all little-endian.
+ */
+public class SemiExternalColoring {
+    private static final int MAGIC = 0x42524B45;
+    private static final int HEADER_BYTES = 16;
+    private static final int BUFFER_BYTES = 1 << 20;
+    // The word offset, which may have twice the room it needs, the edge start and the fill of a vertex
+    private static final int VERTEX_BYTES = 2 * 4 + 4 + 4;
+    // An inner edge takes a pair in the list, which may have twice the room it needs, and an int once grouped
+    private static final int INNER_EDGE_BYTES = 2 * 8 + 4;
+
+    private final Path edgeFile;
+    private final int vertices;
+    private final long edgeCount;
+    private final long memoryBudget;
+    private int[] degrees;
+    private int passes;
+
+    /**
+     * Constructs a new SemiExternalColoring object over an edge file.
+     *
+     * @param edgeFile     The edge file.
+     * @param memoryBudget The largest number of bytes a batch may use, on top of the per-vertex state.
+     * @throws IOException If the file cannot be read or is not an edge file.
+     */
+    public SemiExternalColoring(Path edgeFile, long memoryBudget) throws IOException {
+        this.edgeFile = edgeFile;
+        this.memoryBudget = memoryBudget;
+        try (FileChannel channel = FileChannel.open(edgeFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) != -1) {
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+                throw new IOException(edgeFile + " is not an edge file");
+            }
+            this.vertices = header.getInt();
+            this.edgeCount = header.getLong();
+            if (vertices < 0 || edgeCount < 0) {
+                throw new IOException(edgeFile + " has a negative vertex or edge count");
+            }
+        }
+    }
+
+    /**
+     * Writes the edges of a graph to an edge file, each edge once.
+     *
+     * @param file  The edge file to write.
+     * @param graph The graph.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path file, AdjacencyStore graph) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(graph.getVertices()).putLong(0);
+            long count = 0;
+            for (int v = 0; v < graph.getVertices(); v++) {
+                for (int i = 0; i < graph.getDegree(v); i++) {
+                    int neighbor = graph.getNeighbor(v, i);
+                    if (v < neighbor) {
+                        if (buffer.remaining() < 8) {
+                            drain(channel, buffer);
+                        }
+                        buffer.putInt(v).putInt(neighbor);
+                        count++;
+                    }
+                }
+            }
+            drain(channel, buffer);
+            buffer.putLong(count).flip();
+            channel.write(buffer, 8);
+        }
+    }
+
+    /**
+     * Returns the degree of every vertex, computing them with one pass on the first call.
+     *
+     * @return An array containing the degree of each vertex.
+     * @throws IOException If the edge file cannot be read.
+     */
+    public int[] getDegrees() throws IOException {
+        if (degrees == null) {
+            int[] counts = new int[vertices];
+            scan((from, to) -> {
+                counts[from]++;
+                counts[to]++;
+            });
+            degrees = counts;
+        }
+        return degrees;
+    }
+
+    /**
+     * Calculates the maximum degree of the graph.
+     *
+     * @return The maximum degree.
+     * @throws IOException If the edge file cannot be read.
+     */
+    public int getMaxDegree() throws IOException {
+        return Arrays.stream(getDegrees()).max().orElse(0);
+    }
+
+    /**
+     * Color the vertices greedily based on the given ordering.
+     *
+     * @param ordering The order in which the vertices should be colored, or null for 0, 1, 2, ..., n-1.
+     *                 Entries of -1, as for removed vertices, are skipped.
+     * @return An array containing the colors of the vertices, -1 for the vertices not in the ordering.
+     * @throws IOException              If the edge file cannot be read or holds an edge outside the graph.
+     * @throws IllegalArgumentException If the ordering holds a vertex outside the graph.
+     */
+    public int[] color(int[] ordering) throws IOException {
+        int[] degree = getDegrees();
+        if (ordering == null) {
+            ordering = new int[vertices];
+            for (int i = 0; i < vertices; i++) {
+                ordering[i] = i;
+            }
+        } else {
+            ordering = Arrays.stream(ordering).filter(v -> v != -1).toArray();
+            for (int v : ordering) {
+                if (v < 0 || v >= vertices) {
+                    throw new IllegalArgumentException("Ordering has vertex " + v + " outside 0 to " + (vertices - 1));
+                }
+            }
+        }
+        int[] rank = new int[vertices];
+        Arrays.fill(rank, Integer.MAX_VALUE);
+        for (int i = 0; i < ordering.length; i++) {
+            rank[ordering[i]] = i;
+        }
+        int[] colors = new int[vertices];
+        Arrays.fill(colors, -1);
+
+        int batchStart = 0;
+        while (batchStart < ordering.length) {
+            // Take vertices while their bitsets and inner edges fit the budget, at least one vertex. Every inner
+            // edge has both ends in the batch, so there are at most half as many as the degrees of the batch
+            int batchEnd = batchStart;
+            long bytes = 0;
+            int[] wordOffset = new int[1];
+            int totalWords = 0;
+            while (batchEnd < ordering.length) {
+                int words = (degree[ordering[batchEnd]] + 64) >>> 6;
+                long cost = 8L * words + VERTEX_BYTES + INNER_EDGE_BYTES * ((degree[ordering[batchEnd]] + 1L) / 2);
+                if (batchEnd > batchStart && bytes + cost > memoryBudget) {
+                    break;
+                }
+                bytes += cost;
+                if (batchEnd - batchStart + 1 >= wordOffset.length) {
+                    wordOffset = Arrays.copyOf(wordOffset, wordOffset.length * 2);
+                }
+                totalWords += words;
+                wordOffset[batchEnd - batchStart + 1] = totalWords;
+                batchEnd++;
+            }
+            colorBatch(ordering, rank, degree, colors, batchStart, batchEnd, wordOffset, totalWords);
+            batchStart = batchEnd;
+        }
+        return colors;
+    }
+
+    /**
+     * Returns the number of passes made over the edge file so far.
+     *
+     * @return The number of passes.
+     */
+    public int getPasses() {
+        return passes;
+    }
+
+    /**
+     * Colors one batch of the ordering with one pass over the edges.
+     *
+     * @param ordering   The order in which the vertices should be colored.
+     * @param rank       The position of each vertex in the ordering.
+     * @param degree     The degree of each vertex.
+     * @param colors     The colors assigned so far.
+     * @param batchStart The position of the first vertex of the batch.
+     * @param batchEnd   The position after the last vertex of the batch.
+     * @param wordOffset The offset of the bitset of each vertex of the batch.
+     * @param totalWords The total size of the bitsets.
+     * @throws IOException If the edge file cannot be read.
+     */
+    private void colorBatch(int[] ordering, int[] rank, int[] degree, int[] colors, int batchStart, int batchEnd,
+                            int[] wordOffset, int totalWords) throws IOException {
+        long[] forbidden = new long[totalWords];
+        IntPairList innerEdges = new IntPairList();
+        scan((from, to) -> {
+            boolean fromInBatch = rank[from] >= batchStart && rank[from] < batchEnd;
+            boolean toInBatch = rank[to] >= batchStart && rank[to] < batchEnd;
+            if (fromInBatch && toInBatch) {
+                // Remember the edge at its later end, which is colored second
+                if (rank[from] > rank[to]) {
+                    innerEdges.add(rank[from] - batchStart, to);
+                } else {
+                    innerEdges.add(rank[to] - batchStart, from);
+                }
+            } else if (fromInBatch && colors[to] != -1) {
+                forbid(forbidden, wordOffset[rank[from] - batchStart], colors[to], degree[from]);
+            } else if (toInBatch && colors[from] != -1) {
+                forbid(forbidden, wordOffset[rank[to] - batchStart], colors[from], degree[to]);
+            }
+        });
+
+        // Group the inner edges by their later end, then color the batch in order
+        int size = batchEnd - batchStart;
+        int[] edgeStart = new int[size + 1];
+        for (int i = 0; i < innerEdges.size; i++) {
+            edgeStart[innerEdges.first[i] + 1]++;
+        }
+        for (int i = 0; i < size; i++) {
+            edgeStart[i + 1] += edgeStart[i];
+        }
+        int[] earlier = new int[innerEdges.size];
+        int[] fill = Arrays.copyOf(edgeStart, size);
+        for (int i = 0; i < innerEdges.size; i++) {
+            earlier[fill[innerEdges.first[i]]++] = innerEdges.second[i];
+        }
+        for (int i = 0; i < size; i++) {
+            int v = ordering[batchStart + i];
+            for (int e = edgeStart[i]; e < edgeStart[i + 1]; e++) {
+                forbid(forbidden, wordOffset[i], colors[earlier[e]], degree[v]);
+            }
+            int color = 0;
+            for (int w = wordOffset[i]; w < wordOffset[i + 1]; w++) {
+                if (forbidden[w] != -1L) {
+                    color = (w - wordOffset[i]) * 64 + Long.numberOfTrailingZeros(~forbidden[w]);
+                    break;
+                }
+            }
+            colors[v] = color;
+        }
+    }
+
+    /**
+     * Marks a color as used by a neighbor. Uncolored neighbors and colors above the degree, which can never
+     * be chosen, are ignored.
+     *
+     * @param forbidden The bitsets of the batch.
+     * @param offset    The offset of the vertex's bitset.
+     * @param color     The color to mark.
+     * @param degree    The degree of the vertex.
+     */
+    private static void forbid(long[] forbidden, int offset, int color, int degree) {
+        if (color >= 0 && color <= degree) {
+            forbidden[offset + (color >>> 6)] |= 1L << color;
+        }
+    }
+
+    /**
+     * Streams every edge of the file once, in file order. Self-loops are skipped.
+     *
+     * @param visitor The visitor of each edge.
+     * @throws IOException If the edge file cannot be read or holds a vertex outside the graph.
+     */
+    private void scan(EdgeVisitor visitor) throws IOException {
+        passes++;
+        try (FileChannel channel = FileChannel.open(edgeFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.position(HEADER_BYTES);
+            long remaining = edgeCount;
+            while (remaining > 0) {
+                buffer.clear();
+                if (channel.read(buffer) == -1) {
+                    throw new IOException(edgeFile + " ends before its last edge");
+                }
+                buffer.flip();
+                while (buffer.remaining() >= 8 && remaining > 0) {
+                    int from = buffer.getInt();
+                    int to = buffer.getInt();
+                    remaining--;
+                    if (from < 0 || from >= vertices || to < 0 || to >= vertices) {
+                        throw new IOException(edgeFile + " has edge " + from + " " + to + " outside 0 to " + (vertices - 1));
+                    }
+                    if (from != to) {
+                        visitor.visit(from, to);
+                    }
+                }
+                // Keep a partial edge for the next read
+                channel.position(channel.position() - buffer.remaining());
+            }
+        }
+    }
+
+    /**
+     * Writes out the content of a buffer and clears it.
+     *
+     * @param channel The channel to write to.
+     * @param buffer  The buffer.
+     * @throws IOException If the channel cannot be written.
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * EdgeVisitor receives the edges of a pass.
+     */
+    private interface EdgeVisitor {
+
+        /**
+         * Visits one edge.
+         *
+         * @param from The first vertex of the edge.
+         * @param to   The second vertex of the edge.
+         */
+        void visit(int from, int to);
+    }
+
+    /**
+     * IntPairList is a growable list of int pairs in two primitive arrays.
+     */
+    private static class IntPairList {
+        private int[] first = new int[1024];
+        private int[] second = new int[1024];
+        private int size;
+
+        /**
+         * Appends a pair.
+         *
+         * @param a The first int.
+         * @param b The second int.
+         */
+        private void add(int a, int b) {
+            if (size == first.length) {
+                first = Arrays.copyOf(first, size * 2);
+                second = Arrays.copyOf(second, size * 2);
+            }
+            first[size] = a;
+            second[size] = b;
+            size++;
+        }
+    }
+}
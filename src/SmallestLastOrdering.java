@@ -0,0 +1,156 @@
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * SmallestLastOrdering orders the vertices of a graph by repeatedly removing a vertex of smallest
+ * degree and placing it before all vertices removed so far (a degeneracy ordering).
+ * Coloring greedily in this order uses at most d+1 colors, where d is the degeneracy of the graph.
+ * The vertices are kept in a bucket queue indexed by degree, so the ordering takes O(n+m) time.
+ * An interruptible ordering stops with a {@link CancellationException} if the thread is interrupted.
+ */
+public class SmallestLastOrdering implements OrderingStrategy {
+    // Interruption is checked once every CHECK_MASK + 1 vertices
+    private static final int CHECK_MASK = 1023;
+
+    private boolean interruptible;
+
+    private int degeneracy;
+
+    /**
+     * Sets whether the ordering stops when the thread is interrupted. By default it runs to the end,
+     * so callers that handle interruption themselves always get an ordering.
+     *
+     * @param interruptible True to stop on interruption, otherwise false.
+     */
+    public void setInterruptible(boolean interruptible) {
+        this.interruptible = interruptible;
+    }
+
+    /**
+     * Finds the smallest-last ordering of the vertices of the graph.
+     *
+     * @param graph The graph to order.
+     * @return An array of integers representing the order of vertices in the graph.
+     * @throws CancellationException If the ordering is interruptible and the thread was interrupted.
+     */
+    @Override
+    public int[] findOrdering(AdjacencyStore graph) {
+        int n = graph.getVertices();
+        ScratchArena arena = ScratchArena.current();
+        int mark = arena.mark();
+        try {
+            // The buckets are borrowed from the thread's arena; every entry read is written first
+            int[] degrees = arena.ints(n);
+            int[] next = arena.ints(n);
+            int[] prev = arena.ints(n);
+            ScratchArena.Stamps removed = arena.stamps(n);
+
+            // Count the degrees, ignoring removed vertices
+            int count = 0;
+            int maxDegree = 0;
+            for (int v = 0; v < n; v++) {
+                if (graph.isRemoved(v)) {
+                    removed.add(v);
+                    continue;
+                }
+                int degree = 0;
+                for (int i = 0; i < graph.getDegree(v); i++) {
+                    if (!graph.isRemoved(graph.getNeighbor(v, i))) {
+                        degree++;
+                    }
+                }
+                degrees[v] = degree;
+                maxDegree = Math.max(maxDegree, degree);
+                count++;
+            }
+
+            // Put every vertex that was not removed from the graph in the bucket of its degree
+            int[] heads = arena.ints(maxDegree + 1);
+            Arrays.fill(heads, 0, maxDegree + 1, -1);
+            for (int v = 0; v < n; v++) {
+                if (!removed.contains(v)) {
+                    push(v, heads, next, prev, degrees);
+                }
+            }
+
+            int[] ordering = new int[count];
+            int minDegree = 0;
+            degeneracy = 0;
+            for (int index = count - 1; index >= 0; index--) {
+                if (interruptible && (index & CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Smallest-last ordering was interrupted");
+                }
+                // Removing a vertex lowers the degree of its neighbors by at most one
+                minDegree = Math.max(minDegree - 1, 0);
+                while (heads[minDegree] == -1) {
+                    minDegree++;
+                }
+                int v = heads[minDegree];
+                unlink(v, heads, next, prev, degrees);
+                removed.add(v);
+                ordering[index] = v;
+                degeneracy = Math.max(degeneracy, minDegree);
+
+                for (int i = 0; i < graph.getDegree(v); i++) {
+                    int neighbor = graph.getNeighbor(v, i);
+                    if (!removed.contains(neighbor)) {
+                        unlink(neighbor, heads, next, prev, degrees);
+                        degrees[neighbor]--;
+                        push(neighbor, heads, next, prev, degrees);
+                    }
+                }
+            }
+            return ordering;
+        } finally {
+            arena.release(mark);
+        }
+    }
+
+    /**
+     * Returns the degeneracy of the graph found by the last ordering.
+     *
+     * @return The largest degree a vertex had when it was removed.
+     */
+    public int getDegeneracy() {
+        return degeneracy;
+    }
+
+    /**
+     * Adds a vertex to the front of the bucket of its degree.
+     *
+     * @param v       The vertex to add.
+     * @param heads   The first vertex of each bucket, or -1 if empty.
+     * @param next    The next vertex in the bucket of each vertex.
+     * @param prev    The previous vertex in the bucket of each vertex.
+     * @param degrees The current degree of each vertex.
+     */
+    private static void push(int v, int[] heads, int[] next, int[] prev, int[] degrees) {
+        int head = heads[degrees[v]];
+        next[v] = head;
+        prev[v] = -1;
+        if (head != -1) {
+            prev[head] = v;
+        }
+        heads[degrees[v]] = v;
+    }
+
+    /**
+     * Removes a vertex from the bucket of its degree.
+     *
+     * @param v       The vertex to remove.
+     * @param heads   The first vertex of each bucket, or -1 if empty.
+     * @param next    The next vertex in the bucket of each vertex.
+     * @param prev    The previous vertex in the bucket of each vertex.
+     * @param degrees The current degree of each vertex.
+     */
+    private static void unlink(int v, int[] heads, int[] next, int[] prev, int[] degrees) {
+        if (prev[v] != -1) {
+            next[prev[v]] = next[v];
+        } else {
+            heads[degrees[v]] = next[v];
+        }
+        if (next[v] != -1) {
+            prev[next[v]] = prev[v];
+        }
+    }
+}
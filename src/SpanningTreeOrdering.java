@@ -1,11 +1,19 @@
+import java.util.Arrays;
+
 /**
  * SpanningTreeOrdering class constructs a depth-first search (DFS) spanning tree
  * and provides an ordering of the vertices in the graph.
+ * <p>
+ * The tree is kept as an array of parents; a Graph of the tree is only built when one is asked for,
+ * e.g. to display it.
  */
 public class SpanningTreeOrdering {
-    private Graph graph;
+    private AdjacencyStore graph;
     private int root;
-    private Graph tree;
+    private int[] parent;
+    private int[] ordering;
+    private int orderLength;
+    private int visits;
 
     /**
      * Constructs a new SpanningTreeOrdering object with the given graph and
@@ -13,10 +21,9 @@ public class SpanningTreeOrdering {
      *
      * @param graph The graph to perform spanning tree ordering on.
      */
-    public SpanningTreeOrdering(Graph graph) {
+    public SpanningTreeOrdering(AdjacencyStore graph) {
         this.graph = graph;
         this.root = findVertexWithSmallerDegree();
-        this.tree = new Graph(graph.getVertices());
     }
 
     /**
@@ -26,15 +33,15 @@ public class SpanningTreeOrdering {
      * @param graph The graph to perform spanning tree ordering on.
      * @param root  The root vertex for the spanning tree.
      */
-    public SpanningTreeOrdering(Graph graph, int root) {
+    public SpanningTreeOrdering(AdjacencyStore graph, int root) {
         this.graph = graph;
         this.root = root;
-        this.tree = new Graph(graph.getVertices());
-        reverseDepthFirstSearchOrder(root);
+        findOrdering();
     }
 
     /**
      * Finds an ordering of vertices using depth-first search (DFS) starting from the root.
+     * The search runs once; later calls return the same ordering.
      *
      * @return An array of integers representing the order of vertices in the graph.
      */
@@ -42,8 +49,19 @@ public class SpanningTreeOrdering {
         if (root == -1) {
             return null;
         }
-        int[] dfsOrder = reverseDepthFirstSearchOrder(root);
-        return dfsOrder;
+        if (ordering == null) {
+            ordering = reverseDepthFirstSearchOrder(root);
+        }
+        return ordering;
+    }
+
+    /**
+     * Returns the number of entries of the ordering filled by the search. The entries after them are 0.
+     *
+     * @return The number of vertices reached by the search, removed vertices included.
+     */
+    public int getOrderLength() {
+        return orderLength;
     }
 
     /**
@@ -55,7 +73,7 @@ public class SpanningTreeOrdering {
         int maxDegree = graph.getMaxDegree();
 
         for (int i = 0; i < graph.getVertices(); i++) {
-            if (graph.getAdjacencyList()[i].size() < maxDegree) {
+            if (graph.getDegree(i) < maxDegree) {
                 return i;
             }
         }
@@ -72,14 +90,41 @@ public class SpanningTreeOrdering {
     }
 
     /**
-     * Returns the spanning tree generated during the ordering process.
+     * Returns the parent of each vertex in the spanning tree.
+     *
+     * @return An array of parents, -1 for the root and for vertices outside the tree, or null before
+     * the ordering was found.
+     */
+    public int[] getParent() {
+        return parent;
+    }
+
+    /**
+     * Builds a Graph of the spanning tree generated during the ordering process.
      *
      * @return A Graph object representing the spanning tree.
      */
     public Graph getTree() {
+        Graph tree = new Graph(graph.getVertices());
+        if (parent != null) {
+            for (int v = 0; v < parent.length; v++) {
+                if (parent[v] != -1) {
+                    tree.addEdge(parent[v], v);
+                }
+            }
+        }
         return tree;
     }
 
+    /**
+     * Returns the number of vertices visited by all searches run so far.
+     *
+     * @return The number of DFS visits.
+     */
+    public int getVisitCount() {
+        return visits;
+    }
+
     /**
      * Performs reverse depth-first search starting from the given vertex.
      *
@@ -87,49 +132,72 @@ public class SpanningTreeOrdering {
      * @return An array of integers representing the reverse order of the depth-first search.
      */
     private int[] reverseDepthFirstSearchOrder(int start) {
-        int[] dfsOrder = new int[graph.getVertices()];
-        boolean[] visited = new boolean[graph.getVertices()];
-        int index = 0;
+        int n = graph.getVertices();
+        int[] dfsOrder = new int[n];
+        parent = new int[n];
+        Arrays.fill(parent, -1);
 
-        index = depthFirstSearch(start, visited, dfsOrder, index);
+        // The order and the parents are kept; the visited set and the stack are borrowed from the thread's arena
+        ScratchArena arena = ScratchArena.current();
+        int mark = arena.mark();
+        try {
+            orderLength = depthFirstSearch(start, arena.stamps(n), arena.ints(n), arena.ints(n), dfsOrder);
+        } finally {
+            arena.release(mark);
+        }
 
         return dfsOrder;
     }
 
     /**
-     * Recursive depth-first search function.
+     * Depth-first search with an explicit stack, so a graph with a long path does not overflow the
+     * thread's stack. A vertex is added to the order once all of its neighbors are done.
      *
-     * @param current  The current vertex being visited.
-     * @param visited  An array of booleans representing the visited status of each vertex.
+     * @param start    The vertex to start from.
+     * @param visited  The set of visited vertices.
+     * @param stack    The vertices being searched, at least as long as the graph.
+     * @param next     The index of the next neighbor of each vertex on the stack.
      * @param dfsOrder An array of integers to store the order of visited vertices.
-     * @param index    The current index in the dfsOrder array.
-     * @return The updated index in the dfsOrder array.
+     * @return The number of entries of dfsOrder that were filled.
      */
-    private int depthFirstSearch(int current, boolean[] visited, int[] dfsOrder, int index) {
-        visited[current] = true;
+    private int depthFirstSearch(int start, ScratchArena.Stamps visited, int[] stack, int[] next, int[] dfsOrder) {
+        int index = 0;
+        int top = -1;
+        int current = start;
+        while (current != -1) {
+            visited.add(current);
+            visits++;
 
-        // If the adjacency list of the current vertex is null, set the dfsOrder at the current index to -1 and increment the index.
-        if (graph.getAdjacencyList()[current] == null) {
-            dfsOrder[index] = -1;
-            return index + 1;
-        }
+            // A removed vertex takes a -1 in the order and is not searched further
+            if (graph.isRemoved(current)) {
+                dfsOrder[index++] = -1;
+            } else {
+                stack[++top] = current;
+                next[top] = 0;
+            }
 
-        // Iterate through the neighbors of the current vertex.
-        for (int neighbor : graph.getAdjacencyList()[current]) {
-            // If the neighbor has not been visited, perform a depth-first search on it.
-            if (!visited[neighbor]) {
-                index = depthFirstSearch(neighbor, visited, dfsOrder, index);
-                // If the adjacency list of the neighbor is not null, means the neighbor was nod deleted -
-                // add an edge between the current vertex and the neighbor in the tree.
-                if (graph.getAdjacencyList()[neighbor] != null) {
-                    tree.addEdge(current, neighbor);
+            // Find the next unvisited neighbor of the deepest vertex, ordering the vertices that have none
+            current = -1;
+            while (current == -1 && top >= 0) {
+                int vertex = stack[top];
+                while (next[top] < graph.getDegree(vertex)) {
+                    int neighbor = graph.getNeighbor(vertex, next[top]++);
+                    if (!visited.contains(neighbor)) {
+                        // The neighbor was not deleted - the vertex is its parent in the tree
+                        if (!graph.isRemoved(neighbor)) {
+                            parent[neighbor] = vertex;
+                        }
+                        current = neighbor;
+                        break;
+                    }
+                }
+                if (current == -1) {
+                    dfsOrder[index++] = vertex;
+                    top--;
                 }
             }
         }
-
-        // Set the dfsOrder at the current index to the current vertex and increment the index.
-        dfsOrder[index] = current;
-        return index + 1;
+        return index;
     }
 }
 
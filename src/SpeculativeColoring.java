@@ -0,0 +1,177 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * SpeculativeColoring colors a graph in parallel using the speculative scheme of Gebremedhin and Manne.
+ * The vertices are split into partitions that are colored greedily and concurrently, conflicts between
+ * partitions are detected in a parallel sweep, and only the conflicted vertices are recolored in the
+ * next round.
+ * <p>
+ * Within a round, a partition sees the colors of its own vertices as they are assigned, and the colors
+ * of other vertices as they were when the round started. The result therefore depends only on the seed
+ * and the number of partitions, not on thread scheduling.
+ */
+public class SpeculativeColoring {
+    public static final int DEFAULT_PARTITIONS = 64;
+
+    private AdjacencyStore graph;
+    private int partitions;
+    private int[] order;
+    private int[] position;
+    private int rounds;
+    private long conflicts;
+
+    /**
+     * Constructs a new SpeculativeColoring object for the given graph.
+     *
+     * @param graph      The graph to color.
+     * @param partitions The number of partitions colored concurrently in each round.
+     * @param seed       The seed of the vertex order, so runs are reproducible.
+     */
+    public SpeculativeColoring(AdjacencyStore graph, int partitions, long seed) {
+        this.graph = graph;
+        this.partitions = partitions;
+        this.order = shuffledVertices(graph, seed);
+        this.position = new int[graph.getVertices()];
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+    }
+
+    /**
+     * Colors the graph. Removed vertices stay uncolored.
+     *
+     * @return An array containing the colors of the vertices, -1 for removed vertices.
+     */
+    public int[] color() {
+        int n = graph.getVertices();
+        int[] colors = new int[n];
+        Arrays.fill(colors, -1);
+        int[] partitionOf = new int[n];
+        int[] roundOf = new int[n];
+        rounds = 0;
+        conflicts = 0;
+
+        int[] worklist = order;
+        while (worklist.length > 0) {
+            int round = ++rounds;
+            int[] current = worklist;
+            int[] snapshot = colors.clone();
+            int chunk = (current.length + partitions - 1) / partitions;
+            for (int i = 0; i < current.length; i++) {
+                partitionOf[current[i]] = i / chunk;
+                roundOf[current[i]] = round;
+            }
+
+            // Speculatively color every partition on its own
+            IntStream.range(0, partitions).parallel().forEach(p -> {
+                // Each partition reuses one set of forbidden colors, borrowed from its thread's arena
+                ScratchArena arena = ScratchArena.current();
+                int mark = arena.mark();
+                try {
+                    ColorBitmask forbidden = arena.colorBitmask(0);
+                    int end = Math.min(current.length, (p + 1) * chunk);
+                    for (int i = p * chunk; i < end; i++) {
+                        int v = current[i];
+                        colors[v] = leastAvailableColor(v, p, round, colors, snapshot, partitionOf, roundOf, forbidden);
+                    }
+                } finally {
+                    arena.release(mark);
+                }
+            });
+
+            // The vertex placed later in the order gives way in every conflict
+            worklist = IntStream.of(current).parallel()
+                    .filter(v -> hasConflict(v, colors))
+                    .toArray();
+            for (int v : worklist) {
+                colors[v] = -1;
+            }
+            conflicts += worklist.length;
+        }
+        return colors;
+    }
+
+    /**
+     * Returns the number of rounds the last coloring took.
+     *
+     * @return The number of rounds.
+     */
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Returns the number of vertices that had to be recolored in the last coloring.
+     *
+     * @return The number of conflicts.
+     */
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    /**
+     * Find the least available color for a vertex, as seen from its partition.
+     *
+     * @param v             The vertex to find the least available color for.
+     * @param partition     The partition of the vertex in this round.
+     * @param round         The current round.
+     * @param colors        The colors being assigned.
+     * @param snapshot      The colors as they were when the round started.
+     * @param partitionOf   The partition of each vertex in its last round.
+     * @param roundOf       The last round of each vertex.
+     * @param forbidden     The set to collect the colors of the neighbors in; its content is replaced.
+     * @return The least available color, at most the degree of the vertex.
+     */
+    private int leastAvailableColor(int v, int partition, int round, int[] colors, int[] snapshot,
+                                    int[] partitionOf, int[] roundOf, ColorBitmask forbidden) {
+        int degree = graph.getDegree(v);
+        forbidden.reset(degree);
+        for (int i = 0; i < degree; i++) {
+            int neighbor = graph.getNeighbor(v, i);
+            boolean ownPartition = roundOf[neighbor] == round && partitionOf[neighbor] == partition;
+            int color = ownPartition ? colors[neighbor] : snapshot[neighbor];
+            forbidden.forbid(color);
+        }
+        return forbidden.firstFree();
+    }
+
+    /**
+     * Checks if a vertex shares its color with a neighbor that comes earlier in the order.
+     *
+     * @param v      The vertex to check.
+     * @param colors An array representing the colors of the vertices.
+     * @return True if the vertex must be recolored, otherwise false.
+     */
+    private boolean hasConflict(int v, int[] colors) {
+        for (int i = 0; i < graph.getDegree(v); i++) {
+            int neighbor = graph.getNeighbor(v, i);
+            if (colors[neighbor] == colors[v] && position[neighbor] < position[v]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Shuffles the vertices that were not removed from the graph.
+     *
+     * @param graph The graph.
+     * @param seed  The seed of the shuffle.
+     * @return The shuffled vertices.
+     */
+    private static int[] shuffledVertices(AdjacencyStore graph, long seed) {
+        int[] vertices = IntStream.range(0, graph.getVertices())
+                .filter(v -> !graph.isRemoved(v))
+                .toArray();
+        Random random = new Random(seed);
+        for (int i = vertices.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = vertices[i];
+            vertices[i] = vertices[j];
+            vertices[j] = tmp;
+        }
+        return vertices;
+    }
+}
@@ -1,3 +1,5 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -6,7 +8,7 @@ import java.util.Set;
  * a specific neighbor of a given cut vertex.
  */
 public class Subgraph {
-    private Graph originalGraph;
+    private AdjacencyStore originalGraph;
     private Graph subgraph;
     private Set<Integer> subgraphNodes;
 
@@ -18,7 +20,7 @@ public class Subgraph {
      * @param cutVertex     The cut vertex to start creating the subgraph.
      * @param excludedNeighbor The neighbor of the cut vertex to be excluded from the subgraph.
      */
-    public Subgraph(Graph originalGraph, int cutVertex, int excludedNeighbor) {
+    public Subgraph(AdjacencyStore originalGraph, int cutVertex, int excludedNeighbor) {
         this.originalGraph = originalGraph;
         this.subgraph = new Graph(originalGraph.getVertices());
         this.subgraphNodes = new HashSet<>();
@@ -36,7 +38,8 @@ public class Subgraph {
         Set<Integer> visited = new HashSet<>();
         visited.add(excludedNeighbor);
 
-        for (int neighbor : originalGraph.getAdjacencyList()[cutVertex]) {
+        for (int i = 0; i < originalGraph.getDegree(cutVertex); i++) {
+            int neighbor = originalGraph.getNeighbor(cutVertex, i);
             if (neighbor != excludedNeighbor && isntNeighborOfExcluded(neighbor, excludedNeighbor)) {
                 addEdgesToSubgraph(cutVertex, neighbor, visited);
             }
@@ -51,11 +54,12 @@ public class Subgraph {
      * @return true if the vertex is not a neighbor of the excluded neighbor, false otherwise.
      */
     private boolean isntNeighborOfExcluded(int neighbor, int excludedNeighbor) {
-        return originalGraph.getAdjacencyList()[excludedNeighbor].contains(neighbor);
+        return originalGraph.hasEdge(excludedNeighbor, neighbor);
     }
 
     /**
-     * Adds edges to the subgraph recursively.
+     * Adds the edges of a depth-first search to the subgraph. The search keeps its own stack of vertices
+     * and the index of their next neighbor, so a long path does not overflow the thread's stack.
      *
      * @param vertex   The current vertex.
      * @param neighbor The neighbor of the current vertex.
@@ -64,10 +68,20 @@ public class Subgraph {
     private void addEdgesToSubgraph(int vertex, int neighbor, Set<Integer> visited) {
         addEdge(vertex, neighbor);
         visited.add(neighbor);
+        Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[]{neighbor, 0});
 
-        for (int nextNeighbor : originalGraph.getAdjacencyList()[neighbor]) {
+        while (!stack.isEmpty()) {
+            int[] top = stack.peek();
+            if (top[1] == originalGraph.getDegree(top[0])) {
+                stack.pop();
+                continue;
+            }
+            int nextNeighbor = originalGraph.getNeighbor(top[0], top[1]++);
             if (!visited.contains(nextNeighbor)) {
-                addEdgesToSubgraph(neighbor, nextNeighbor, visited);
+                addEdge(top[0], nextNeighbor);
+                visited.add(nextNeighbor);
+                stack.push(new int[]{nextNeighbor, 0});
             }
         }
     }
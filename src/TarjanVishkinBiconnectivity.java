@@ -0,0 +1,254 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * TarjanVishkinBiconnectivity finds the cut vertices of a connected graph with the parallel algorithm
+ * of Tarjan and Vishkin, instead of a sequential depth-first search.
+ * <p>
+ * It takes a breadth-first spanning tree, numbers the vertices in preorder and computes subtree sizes
+ * level by level, then computes for every subtree the lowest and highest preorder number reachable
+ * through one non-tree edge. Two tree edges are in the same block when a non-tree edge joins their
+ * unrelated subtrees, or when the subtree below the lower one escapes the subtree of the upper one.
+ * The blocks are the components of that relation, found with a concurrent union-find, and a vertex is
+ * a cut vertex when its tree edges lie in more than one block. Every step except the union-find is a
+ * parallel pass over a level or over all vertices.
+ */
+public class TarjanVishkinBiconnectivity {
+    private final AdjacencyStore graph;
+
+    /**
+     * Constructs a new TarjanVishkinBiconnectivity object for the given graph.
+     *
+     * @param graph The graph to find cut vertices in.
+     */
+    public TarjanVishkinBiconnectivity(AdjacencyStore graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Finds the cut vertices of the graph.
+     *
+     * @return An array marking the cut vertices, or null if the graph is not connected.
+     */
+    public boolean[] findCutVertices() {
+        int n = graph.getVertices();
+        int root = 0;
+        while (root < n && graph.isRemoved(root)) {
+            root++;
+        }
+        if (root == n) {
+            return new boolean[n];
+        }
+
+        // Spanning tree: every vertex hangs from its smallest neighbor one level closer to the root
+        int[] levels = new ParallelBfs(graph).levels(root);
+        for (int v = 0; v < n; v++) {
+            if (levels[v] == -1 && !graph.isRemoved(v)) {
+                return null;
+            }
+        }
+        int[] parent = new int[n];
+        IntStream.range(0, n).parallel().forEach(v -> parent[v] = findParent(v, levels));
+
+        // Vertices grouped by level, and the children of every vertex
+        int depth = Arrays.stream(levels).max().getAsInt() + 1;
+        int[] levelStart = new int[depth + 1];
+        for (int level : levels) {
+            if (level != -1) levelStart[level + 1]++;
+        }
+        Arrays.parallelPrefix(levelStart, Integer::sum);
+        int[] byLevel = new int[levelStart[depth]];
+        int[] levelFill = Arrays.copyOf(levelStart, depth);
+        for (int v = 0; v < n; v++) {
+            if (levels[v] != -1) byLevel[levelFill[levels[v]]++] = v;
+        }
+        int[] childStart = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            if (parent[v] != -1) childStart[parent[v] + 1]++;
+        }
+        Arrays.parallelPrefix(childStart, Integer::sum);
+        int[] children = new int[childStart[n]];
+        int[] childFill = Arrays.copyOf(childStart, n);
+        for (int v = 0; v < n; v++) {
+            if (parent[v] != -1) children[childFill[parent[v]]++] = v;
+        }
+
+        // Subtree sizes bottom-up, then preorder numbers top-down
+        int[] size = new int[n];
+        for (int level = depth - 1; level >= 0; level--) {
+            levelStream(byLevel, levelStart, level).forEach(v -> {
+                int sum = 1;
+                for (int c = childStart[v]; c < childStart[v + 1]; c++) {
+                    sum += size[children[c]];
+                }
+                size[v] = sum;
+            });
+        }
+        int[] pre = new int[n];
+        for (int level = 0; level < depth; level++) {
+            levelStream(byLevel, levelStart, level).forEach(v -> {
+                int next = pre[v] + 1;
+                for (int c = childStart[v]; c < childStart[v + 1]; c++) {
+                    pre[children[c]] = next;
+                    next += size[children[c]];
+                }
+            });
+        }
+
+        // Lowest and highest preorder number reachable from each subtree through one non-tree edge
+        int[] low = new int[n];
+        int[] high = new int[n];
+        IntStream.of(byLevel).parallel().forEach(v -> {
+            low[v] = high[v] = pre[v];
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                int w = graph.getNeighbor(v, i);
+                if (!isTreeEdge(v, w, parent) && !graph.isRemoved(w)) {
+                    low[v] = Math.min(low[v], pre[w]);
+                    high[v] = Math.max(high[v], pre[w]);
+                }
+            }
+        });
+        for (int level = depth - 1; level >= 0; level--) {
+            levelStream(byLevel, levelStart, level).forEach(v -> {
+                for (int c = childStart[v]; c < childStart[v + 1]; c++) {
+                    low[v] = Math.min(low[v], low[children[c]]);
+                    high[v] = Math.max(high[v], high[children[c]]);
+                }
+            });
+        }
+
+        // Blocks of tree edges, each tree edge named by its lower vertex
+        UnionFind blocks = new UnionFind(n);
+        IntStream.of(byLevel).parallel().forEach(v -> {
+            for (int i = 0; i < graph.getDegree(v); i++) {
+                int w = graph.getNeighbor(v, i);
+                if (!isTreeEdge(v, w, parent) && !graph.isRemoved(w) && pre[v] + size[v] <= pre[w]) {
+                    blocks.union(v, w);
+                }
+            }
+            int u = parent[v];
+            if (u != -1 && parent[u] != -1 && (low[v] < pre[u] || high[v] >= pre[u] + size[u])) {
+                blocks.union(v, u);
+            }
+        });
+
+        boolean[] isCutVertex = new boolean[n];
+        IntStream.of(byLevel).parallel().forEach(v -> {
+            int first = childStart[v];
+            int block = parent[v] != -1 ? blocks.find(v) : first < childStart[v + 1] ? blocks.find(children[first++]) : -1;
+            for (int c = first; c < childStart[v + 1]; c++) {
+                if (blocks.find(children[c]) != block) {
+                    isCutVertex[v] = true;
+                    break;
+                }
+            }
+        });
+        return isCutVertex;
+    }
+
+    /**
+     * Finds the parent of a vertex in the breadth-first spanning tree.
+     *
+     * @param v      The vertex.
+     * @param levels The level of each vertex.
+     * @return The smallest neighbor one level closer to the root, or -1 for the root and removed vertices.
+     */
+    private int findParent(int v, int[] levels) {
+        if (levels[v] <= 0) {
+            return -1;
+        }
+        int parent = -1;
+        for (int i = 0; i < graph.getDegree(v); i++) {
+            int w = graph.getNeighbor(v, i);
+            if (levels[w] == levels[v] - 1 && (parent == -1 || w < parent)) {
+                parent = w;
+            }
+        }
+        return parent;
+    }
+
+    /**
+     * Checks if an edge is in the spanning tree.
+     *
+     * @param v      One end of the edge.
+     * @param w      The other end of the edge.
+     * @param parent The parent of each vertex.
+     * @return True if one end is the parent of the other, otherwise false.
+     */
+    private static boolean isTreeEdge(int v, int w, int[] parent) {
+        return parent[v] == w || parent[w] == v;
+    }
+
+    /**
+     * Streams the vertices of one level, in parallel.
+     *
+     * @param byLevel    The vertices grouped by level.
+     * @param levelStart The index of the first vertex of each level.
+     * @param level      The level.
+     * @return A parallel stream of the vertices of the level.
+     */
+    private static IntStream levelStream(int[] byLevel, int[] levelStart, int level) {
+        return Arrays.stream(byLevel, levelStart[level], levelStart[level + 1]).parallel();
+    }
+
+    /**
+     * UnionFind is a lock-free union-find: a root is only ever linked to a smaller root, by a
+     * compare-and-set, so concurrent unions cannot create cycles.
+     */
+    private static class UnionFind {
+        private final AtomicIntegerArray parent;
+
+        /**
+         * Constructs a new UnionFind object with every element in its own set.
+         *
+         * @param n The number of elements.
+         */
+        private UnionFind(int n) {
+            parent = new AtomicIntegerArray(n);
+            for (int i = 0; i < n; i++) {
+                parent.set(i, i);
+            }
+        }
+
+        /**
+         * Finds the root of the set of an element, halving the path on the way.
+         *
+         * @param x The element.
+         * @return The root of its set.
+         */
+        private int find(int x) {
+            while (parent.get(x) != x) {
+                int p = parent.get(x);
+                int grandparent = parent.get(p);
+                parent.compareAndSet(x, p, grandparent);
+                x = grandparent;
+            }
+            return x;
+        }
+
+        /**
+         * Merges the sets of two elements.
+         *
+         * @param a The first element.
+         * @param b The second element.
+         */
+        private void union(int a, int b) {
+            while (true) {
+                int rootA = find(a);
+                int rootB = find(b);
+                if (rootA == rootB) {
+                    return;
+                }
+                if (rootA < rootB) {
+                    int tmp = rootA;
+                    rootA = rootB;
+                    rootB = tmp;
+                }
+                if (parent.compareAndSet(rootA, rootA, rootB)) {
+                    return;
+                }
+            }
+        }
+    }
+}
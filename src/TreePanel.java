@@ -11,7 +11,6 @@ import java.util.Map;
  */
 public class TreePanel extends JPanel {
     private Graph tree;
-    private int root = -1;
     private int[] colors;
     private Map<Integer, Point> vertexPositions;
     boolean first_run = true;
@@ -19,11 +18,12 @@ public class TreePanel extends JPanel {
     JLabel order;
 
     /**
-     * Constructs a TreePanel with a given Graph.
+     * Constructs a TreePanel with a given Graph and the order in which its vertices are painted.
      *
-     * @param graph The spanning tree as a Graph object.
+     * @param graph    The spanning tree as a Graph object.
+     * @param ordering The painting order of the vertices; -1 entries are skipped.
      */
-    public TreePanel(Graph graph) {
+    public TreePanel(Graph graph, int[] ordering) {
         this.tree = graph;
         this.colors = new int[graph.getVertices()];
         vertexPositions = new HashMap<>();
@@ -37,31 +37,7 @@ public class TreePanel extends JPanel {
         order.setFont(new Font("Arial", Font.PLAIN, 30));
         order.setVisible(false);
         add(order);
-        displayOrder();
-    }
-
-    /**
-     * Constructs a TreePanel with a given Graph and root.
-     *
-     * @param graph The spanning tree as a Graph object.
-     * @param root  The root vertex of the spanning tree.
-     */
-    public TreePanel(Graph graph, int root) {
-        this.tree = graph;
-        this.root = root;
-        this.colors = new int[graph.getVertices()];
-        vertexPositions = new HashMap<>();
-        addComponentListener(new ComponentAdapter() {
-            @Override
-            public void componentResized(ComponentEvent e) {
-                calculateVertexPositions();
-            }
-        });
-        order = new JLabel();
-        order.setFont(new Font("Arial", Font.PLAIN, 30));
-        order.setVisible(false);
-        add(order);
-        displayOrder();
+        displayOrder(ordering);
     }
 
     /**
@@ -148,27 +124,17 @@ public class TreePanel extends JPanel {
 
     /**
      * Displays the ordering of vertices in the spanning tree.
+     *
+     * @param ordering The painting order of the vertices; -1 entries are skipped.
      */
-    private void displayOrder() {
-        // Create a SpanningTreeOrdering object based on the root vertex, if specified
-        SpanningTreeOrdering spoTree;
-        int[] ordering;
-        int border;
-        if (root != -1) {
-            spoTree = new SpanningTreeOrdering(tree, root);
-            ordering = spoTree.findOrdering();
-            border = ordering.length - 2;
-        } else {
-            spoTree = new SpanningTreeOrdering(tree);
-            ordering = spoTree.findOrdering();
-            border = ordering.length;
-        }
-
+    private void displayOrder(int[] ordering) {
         // Build the string representing the tree painting order
-        StringBuilder order = new StringBuilder("Tree painting Order: " + ordering[0]);
-        for (int i = 1; i < border; i++) {
-            if (ordering[i] == -1) continue;
-            order.append("->").append(ordering[i]);
+        StringBuilder order = new StringBuilder("Tree painting Order: ");
+        String separator = "";
+        for (int v : ordering) {
+            if (v == -1) continue;
+            order.append(separator).append(v);
+            separator = "->";
         }
 
         // Set the order text, position, and visibility, and then repaint the panel
@@ -0,0 +1,283 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * VertexRelabeling renumbers the vertices of a graph so that neighbors get nearby numbers, and the
+ * neighbor scans of the coloring engine touch nearby memory. The relabeled graph is colored in place
+ * of the original, and the colors are mapped back to the original vertices afterwards.
+ * <p>
+ * Removed vertices are numbered last and stay removed. The rows of the relabeled graph are sorted.
+ */
+public class VertexRelabeling {
+
+    /**
+     * The ways the vertices can be renumbered.
+     */
+    public enum Strategy {
+        /**
+         * Reverse Cuthill–McKee: breadth-first from a vertex of smallest degree in each component,
+         * visiting neighbors by increasing degree, then reversed. Keeps the bandwidth small.
+         */
+        RCM,
+        /**
+         * Breadth-first from the smallest vertex of each component.
+         */
+        BFS,
+        /**
+         * By decreasing degree, so the rows scanned most often come first.
+         */
+        DEGREE
+    }
+
+    private final int[] newId;
+    private final int[] oldId;
+
+    /**
+     * Constructs a new VertexRelabeling object from a numbering of the vertices.
+     *
+     * @param oldId The original vertex of each new number.
+     */
+    private VertexRelabeling(int[] oldId) {
+        this.oldId = oldId;
+        this.newId = new int[oldId.length];
+        for (int i = 0; i < oldId.length; i++) {
+            newId[oldId[i]] = i;
+        }
+    }
+
+    /**
+     * Computes the relabeling of a graph.
+     *
+     * @param graph    The graph to relabel.
+     * @param strategy The way the vertices are renumbered.
+     * @return The relabeling.
+     */
+    public static VertexRelabeling of(Graph graph, Strategy strategy) {
+        int[] order;
+        switch (strategy) {
+            case RCM:
+                order = breadthFirstOrder(graph, true);
+                reverse(order, countLive(graph));
+                break;
+            case BFS:
+                order = breadthFirstOrder(graph, false);
+                break;
+            default:
+                order = Arrays.copyOf(new LargestFirstOrdering().findOrdering(graph), graph.getVertices());
+                appendRemoved(graph, order, countLive(graph));
+                break;
+        }
+        return new VertexRelabeling(order);
+    }
+
+    /**
+     * Colors a graph through a relabeling: the engine colors the relabeled graph, and its colors are
+     * mapped back to the original vertices.
+     *
+     * @param graph    The graph to color.
+     * @param strategy The way the vertices are renumbered.
+     * @param coloring The coloring engine, for example {@code g -> new GraphColoring(g).brooksAlgorithm(null)}.
+     * @return An array containing the colors of the original vertices.
+     */
+    public static int[] color(Graph graph, Strategy strategy, Function<Graph, int[]> coloring) {
+        VertexRelabeling relabeling = of(graph, strategy);
+        return relabeling.toOriginal(coloring.apply(relabeling.apply(graph)));
+    }
+
+    /**
+     * Builds the relabeled graph.
+     *
+     * @param graph The graph this relabeling was computed for.
+     * @return A new Graph object with every vertex renumbered.
+     */
+    public Graph apply(Graph graph) {
+        int n = graph.getVertices();
+        Graph relabeled = new Graph(n);
+        ArrayList<Integer>[] rows = relabeled.getAdjacencyList();
+        int[] row = new int[graph.getMaxDegree()];
+        for (int v = 0; v < n; v++) {
+            int old = oldId[v];
+            if (graph.isRemoved(old)) {
+                relabeled.removeVertex(v);
+                continue;
+            }
+            int degree = graph.getDegree(old);
+            for (int i = 0; i < degree; i++) {
+                row[i] = newId[graph.getNeighbor(old, i)];
+            }
+            Arrays.sort(row, 0, degree);
+            rows[v].ensureCapacity(degree);
+            for (int i = 0; i < degree; i++) {
+                rows[v].add(row[i]);
+            }
+        }
+        return relabeled;
+    }
+
+    /**
+     * Maps the colors of the relabeled graph back to the original vertices.
+     *
+     * @param colors An array representing the colors of the relabeled vertices.
+     * @return An array containing the colors of the original vertices.
+     */
+    public int[] toOriginal(int[] colors) {
+        int[] original = new int[colors.length];
+        for (int v = 0; v < colors.length; v++) {
+            original[oldId[v]] = colors[v];
+        }
+        return original;
+    }
+
+    /**
+     * Returns the new number of a vertex.
+     *
+     * @param v The original vertex.
+     * @return The number of the vertex in the relabeled graph.
+     */
+    public int getNewId(int v) {
+        return newId[v];
+    }
+
+    /**
+     * Returns the original vertex of a new number.
+     *
+     * @param v The vertex of the relabeled graph.
+     * @return The original vertex.
+     */
+    public int getOldId(int v) {
+        return oldId[v];
+    }
+
+    /**
+     * Orders the vertices breadth-first, component by component, with the removed vertices last.
+     * <p>
+     * The search is sequential rather than {@link ParallelBfs}: Cuthill–McKee numbers each level in the
+     * order of the parents, every parent's new neighbors by degree, while ParallelBfs sorts each level by
+     * vertex. ParallelBfs also allocates for the whole graph per source, which would cost O(n) for each
+     * of many small components.
+     *
+     * @param graph        The graph to order.
+     * @param cuthillMcKee Whether to start each component from a vertex of smallest degree and visit
+     *                     neighbors by increasing degree, instead of in row order.
+     * @return The original vertex of each new number.
+     */
+    private static int[] breadthFirstOrder(Graph graph, boolean cuthillMcKee) {
+        int n = graph.getVertices();
+        int[] order = new int[n];
+        boolean[] visited = new boolean[n];
+        int[] byDegree = cuthillMcKee ? increasingDegree(graph) : null;
+        int[] row = new int[graph.getMaxDegree()];
+        long[] keys = cuthillMcKee ? new long[row.length] : null;
+        int size = 0;
+        for (int s = 0; s < n; s++) {
+            int source = cuthillMcKee ? byDegree[s] : s;
+            if (source == -1 || graph.isRemoved(source) || visited[source]) continue;
+            visited[source] = true;
+            int head = size;
+            order[size++] = source;
+            while (head < size) {
+                int v = order[head++];
+                int count = 0;
+                for (int i = 0; i < graph.getDegree(v); i++) {
+                    int neighbor = graph.getNeighbor(v, i);
+                    if (!visited[neighbor] && !graph.isRemoved(neighbor)) {
+                        visited[neighbor] = true;
+                        row[count++] = neighbor;
+                    }
+                }
+                if (cuthillMcKee) {
+                    sortByDegree(graph, row, keys, count);
+                }
+                System.arraycopy(row, 0, order, size, count);
+                size += count;
+            }
+        }
+        appendRemoved(graph, order, size);
+        return order;
+    }
+
+    /**
+     * Orders the vertices by increasing degree with a counting sort, ties broken by vertex index.
+     *
+     * @param graph The graph to order.
+     * @return The vertices that were not removed by increasing degree, padded with -1.
+     */
+    private static int[] increasingDegree(Graph graph) {
+        int n = graph.getVertices();
+        int[] start = new int[graph.getMaxDegree() + 2];
+        for (int v = 0; v < n; v++) {
+            if (!graph.isRemoved(v)) start[graph.getDegree(v) + 1]++;
+        }
+        for (int d = 1; d < start.length; d++) {
+            start[d] += start[d - 1];
+        }
+        int[] order = new int[n];
+        Arrays.fill(order, -1);
+        for (int v = 0; v < n; v++) {
+            if (!graph.isRemoved(v)) order[start[graph.getDegree(v)]++] = v;
+        }
+        return order;
+    }
+
+    /**
+     * Sorts vertices by increasing degree, ties broken by vertex index.
+     *
+     * @param graph The graph the vertices belong to.
+     * @param row   The vertices.
+     * @param keys  Scratch space at least as long as the row.
+     * @param count The number of vertices to sort.
+     */
+    private static void sortByDegree(Graph graph, int[] row, long[] keys, int count) {
+        for (int i = 0; i < count; i++) {
+            keys[i] = (long) graph.getDegree(row[i]) << 32 | row[i];
+        }
+        Arrays.sort(keys, 0, count);
+        for (int i = 0; i < count; i++) {
+            row[i] = (int) keys[i];
+        }
+    }
+
+    /**
+     * Fills the end of an order with the removed vertices.
+     *
+     * @param graph The graph being ordered.
+     * @param order The order, complete up to {@code size}.
+     * @param size  The number of vertices already ordered.
+     */
+    private static void appendRemoved(Graph graph, int[] order, int size) {
+        for (int v = 0; v < graph.getVertices(); v++) {
+            if (graph.isRemoved(v)) {
+                order[size++] = v;
+            }
+        }
+    }
+
+    /**
+     * Counts the vertices that were not removed.
+     *
+     * @param graph The graph.
+     * @return The number of vertices.
+     */
+    private static int countLive(Graph graph) {
+        int count = 0;
+        for (int v = 0; v < graph.getVertices(); v++) {
+            if (!graph.isRemoved(v)) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Reverses the start of an array.
+     *
+     * @param order The array.
+     * @param size  The number of entries to reverse.
+     */
+    private static void reverse(int[] order, int size) {
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorColorScan searches the words of a {@link ColorBitmask} for one that is not full, comparing
+ * a whole vector of words per step. It needs the incubating Vector API, so it is kept apart from the
+ * rest of the tree and compiled against it with {@code --add-modules jdk.incubator.vector}, e.g.
+ * {@code javac --add-modules jdk.incubator.vector -cp out -d out vector/VectorColorScan.java}.
+ * {@link ColorBitmask} finds it through the {@link java.util.ServiceLoader} entry in
+ * {@code vector/META-INF/services}, which must be copied next to the compiled class, when the module is
+ * added at run time.
+ */
+public class VectorColorScan implements ColorBitmask.WordScan {
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    /**
+     * Finds the first word with a clear bit.
+     *
+     * @param words  The words.
+     * @param length The number of words to search.
+     * @return The index of the word, or -1 if all are full.
+     */
+    @Override
+    public int firstNotFull(long[] words, int length) {
+        int w = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; w < bound; w += SPECIES.length()) {
+            VectorMask<Long> notFull = LongVector.fromArray(SPECIES, words, w).compare(VectorOperators.NE, -1L);
+            if (notFull.anyTrue()) {
+                return w + notFull.firstTrue();
+            }
+        }
+        for (; w < length; w++) {
+            if (words[w] != -1L) {
+                return w;
+            }
+        }
+        return -1;
+    }
+}